@@ -0,0 +1,72 @@
+// BoardGeometry.java
+// Shape of an N x N board with n x n boxes (N = n * n): 9x9 for n = 3, 16x16 for 4, 25x25 for 5.
+// Precomputes what the 9x9 code hard-codes as 9, 3 and 81: units (rows, columns, boxes), each cell's
+// box and peers. Digits 1..N map to bits 0..N-1 of a long mask, so boxes up to 8 (64x64) are supported.
+// Instances are immutable and cached per box size.
+
+public final class BoardGeometry {
+    public static final int MIN_BOX = 2;
+    public static final int MAX_BOX = 8;
+    private static final BoardGeometry[] CACHE = new BoardGeometry[MAX_BOX + 1];
+
+    private final int box;
+    private final int side;
+    private final int cells;
+    private final long all;
+    private final int[] boxOf;
+    private final int[][] units; // Rows 0..N-1, columns N..2N-1, boxes 2N..3N-1
+    private final int[][] peers;
+
+    private BoardGeometry(int box) {
+        this.box = box;
+        this.side = box * box;
+        this.cells = side * side;
+        this.all = side == 64 ? -1L : (1L << side) - 1;
+        this.boxOf = new int[cells];
+        this.units = new int[3 * side][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                units[i][j] = i * side + j;
+                units[side + i][j] = j * side + i;
+                units[2 * side + i][j] = ((i / box) * box + j / box) * side + (i % box) * box + j % box;
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            boxOf[cell] = ((cell / side) / box) * box + (cell % side) / box;
+        }
+        int peerCount = 3 * side - 2 * box - 1; // Row + column + box, minus overlaps and the cell itself
+        this.peers = new int[cells][peerCount];
+        for (int cell = 0; cell < cells; cell++) {
+            int r = cell / side, c = cell % side, n = 0;
+            for (int other = 0; other < cells; other++) {
+                if (other != cell && (other / side == r || other % side == c || boxOf[other] == boxOf[cell])) {
+                    peers[cell][n++] = other;
+                }
+            }
+        }
+    }
+
+    public static synchronized BoardGeometry of(int box) {
+        if (box < MIN_BOX || box > MAX_BOX) {
+            throw new IllegalArgumentException("Box size must be " + MIN_BOX + ".." + MAX_BOX + ": " + box);
+        }
+        if (CACHE[box] == null) CACHE[box] = new BoardGeometry(box);
+        return CACHE[box];
+    }
+
+    public int getBox() { return box; }
+    public int getSide() { return side; }
+    public int getCells() { return cells; }
+    // Mask with one bit per digit
+    public long getAll() { return all; }
+
+    public int row(int cell) { return cell / side; }
+    public int col(int cell) { return cell % side; }
+    public int boxOf(int cell) { return boxOf[cell]; }
+    public int[][] getUnits() { return units; }
+    public int[] peers(int cell) { return peers[cell]; }
+
+    public static long bit(int num) {
+        return 1L << (num - 1);
+    }
+}
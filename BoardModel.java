@@ -1,12 +1,41 @@
 // BoardModel.java
 // Core data and basic operations (DSA: 2D Arrays for grids).
+// Keeps incremental trackers next to the grid (DSA: one 9-bit mask + digit counts per unit,
+// plus filled/mismatch/conflict counters), so placement checks, candidates and isSolved() are O(1).
+// All changes must go through this class (placeNumber, revealSolution, undo/redo, load) to keep them in sync;
+// each changed cell is also reported to the registered CellChangeListeners (e.g. for dirty-cell rendering).
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class BoardModel {
     private final int[][] puzzle = new int[9][9];
     private final int[][] solution = new int[9][9];
-    private final Validator validator = new Validator();
     private int numberOfEmptyCells = 20;
 
+    // Units: rows 0-8, columns 9-17, boxes 18-26
+    private final int[] unitMasks = new int[27];
+    private final byte[][] unitCounts = new byte[27][10];
+    private int filledCount;
+    private int mismatchCount; // Filled cells that differ from the stored solution
+    private int conflictCount; // (unit, digit) pairs appearing more than once
+    private final List<CellChangeListener> listeners = new ArrayList<>();
+    private final int[] previousValues = new int[81]; // Scratch for load()
+    private final boolean[] given = new boolean[81];  // Cells filled by the loaded puzzle
+
+    public void addChangeListener(CellChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(CellChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getValue(int index) {
+        return puzzle[index / 9][index % 9];
+    }
+
     public int[][] getPuzzleCopy() {
         int[][] copy = new int[9][9];
         for (int r = 0; r < 9; r++) System.arraycopy(puzzle[r], 0, copy[r], 0, 9);
@@ -24,29 +53,161 @@ public class BoardModel {
     }
 
     public boolean placeNumber(int row, int col, int num, UndoManager undoManager) {
+        if (!Metrics.ENABLED) return place(row, col, num, undoManager);
+        long t0 = System.nanoTime();
+        boolean accepted = place(row, col, num, undoManager);
+        Metrics.placed(System.nanoTime() - t0, accepted);
+        return accepted;
+    }
+
+    private boolean place(int row, int col, int num, UndoManager undoManager) {
         if (num < 0 || num > 9) return false;
         int oldValue = puzzle[row][col];
         if (num == oldValue) return true;
 
-        if (num == 0 || validator.isValidPlacement(puzzle, row, col, num)) {
+        if (num == 0 || isValidPlacement(row, col, num)) {
             undoManager.recordMove(row, col, oldValue, num);
-            puzzle[row][col] = num;
+            setCell(row * 9 + col, num);
             return true;
         }
         return false;
     }
 
+    /**
+     * O(1) equivalent of Validator.isValidPlacement on the current puzzle.
+     */
+    public boolean isValidPlacement(int row, int col, int num) {
+        int used = unitMasks[row] | unitMasks[9 + col] | unitMasks[18 + ConstraintEngine.boxIndex(row, col)];
+        return (used & ConstraintEngine.bit(num)) == 0;
+    }
+
+    /**
+     * Digits that could go in an empty cell as a 9-bit mask (bit v - 1 for digit v); 0 for filled cells.
+     */
+    public int getCandidates(int row, int col) {
+        if (puzzle[row][col] != 0) return 0;
+        int used = unitMasks[row] | unitMasks[9 + col] | unitMasks[18 + ConstraintEngine.boxIndex(row, col)];
+        return ~used & ConstraintEngine.ALL;
+    }
+
+    /**
+     * True once every cell is filled with no unit repeating a digit. Any valid completion counts,
+     * so puzzles with several solutions accept alternative answers.
+     */
     public boolean isSolved() {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                if (puzzle[r][c] == 0 || puzzle[r][c] != solution[r][c]) return false;
-            }
+        return filledCount == 81 && conflictCount == 0;
+    }
+
+    public int getFilledCount() { return filledCount; }
+    public int getMismatchCount() { return mismatchCount; }
+    public int getConflictCount() { return conflictCount; }
+
+    /**
+     * Loads a pre-generated puzzle (e.g. from PuzzleService) instead of generating in place.
+     */
+    public void load(Puzzle p) {
+        for (int i = 0; i < 81; i++) previousValues[i] = puzzle[i / 9][i % 9];
+        p.getPuzzle().copyTo(puzzle);
+        p.getSolution().copyTo(solution);
+        for (int i = 0; i < 81; i++) given[i] = p.getPuzzle().get(i) != 0;
+        rebuildTracking(); // Solution changed too, so recount everything in one pass
+        for (int i = 0; i < 81; i++) {
+            int v = puzzle[i / 9][i % 9];
+            if (v != previousValues[i]) notifyListeners(i, previousValues[i], v);
         }
-        return true;
+    }
+
+    /**
+     * Restores a saved game: loads the givens, then writes the player's entries on top of them.
+     */
+    public void resume(Puzzle givens, PackedGrid board) {
+        load(givens);
+        for (int i = 0; i < 81; i++) {
+            if (!given[i] && board.get(i) != getValue(i)) setCell(i, board.get(i));
+        }
+    }
+
+    public boolean isGiven(int index) {
+        return given[index];
+    }
+
+    /**
+     * Packed copy of the current puzzle: one small allocation instead of ten arrays.
+     */
+    public PackedGrid snapshot() {
+        return PackedGrid.from(puzzle);
     }
 
     public void revealSolution() {
-        for (int r = 0; r < 9; r++) System.arraycopy(solution[r], 0, puzzle[r], 0, 9);
+        for (int i = 0; i < 81; i++) setCell(i, solution[i / 9][i % 9]);
+    }
+
+    public void undo(UndoManager undoManager) {
+        undoManager.undo(puzzle, this::cellWritten);
+    }
+
+    public void redo(UndoManager undoManager) {
+        undoManager.redo(puzzle, this::cellWritten);
+    }
+
+    // Recomputes all trackers from the grids
+    private void rebuildTracking() {
+        Arrays.fill(unitMasks, 0);
+        for (byte[] counts : unitCounts) Arrays.fill(counts, (byte) 0);
+        filledCount = 0;
+        mismatchCount = 0;
+        conflictCount = 0;
+        for (int i = 0; i < 81; i++) track(i, 0, puzzle[i / 9][i % 9]);
+    }
+
+    private void setCell(int index, int value) {
+        int oldValue = puzzle[index / 9][index % 9];
+        if (oldValue == value) return;
+        puzzle[index / 9][index % 9] = value;
+        cellWritten(index, oldValue, value);
+    }
+
+    private void cellWritten(int index, int oldValue, int newValue) {
+        track(index, oldValue, newValue);
+        notifyListeners(index, oldValue, newValue);
+    }
+
+    private void notifyListeners(int index, int oldValue, int newValue) {
+        for (int i = 0; i < listeners.size(); i++) listeners.get(i).cellChanged(index, oldValue, newValue);
+    }
+
+    // Updates trackers for a cell already written from oldValue to newValue
+    private void track(int index, int oldValue, int newValue) {
+        int row = index / 9;
+        int col = index % 9;
+        int box = 18 + ConstraintEngine.boxIndex(row, col);
+        int expected = solution[row][col];
+        if (oldValue != 0) {
+            filledCount--;
+            if (oldValue != expected) mismatchCount--;
+            removeDigit(row, oldValue);
+            removeDigit(9 + col, oldValue);
+            removeDigit(box, oldValue);
+        }
+        if (newValue != 0) {
+            filledCount++;
+            if (newValue != expected) mismatchCount++;
+            addDigit(row, newValue);
+            addDigit(9 + col, newValue);
+            addDigit(box, newValue);
+        }
+    }
+
+    private void addDigit(int unit, int v) {
+        int count = ++unitCounts[unit][v];
+        if (count == 1) unitMasks[unit] |= ConstraintEngine.bit(v);
+        else if (count == 2) conflictCount++;
+    }
+
+    private void removeDigit(int unit, int v) {
+        int count = --unitCounts[unit][v];
+        if (count == 0) unitMasks[unit] &= ~ConstraintEngine.bit(v);
+        else if (count == 1) conflictCount--;
     }
 
     // Getters for internal use
@@ -0,0 +1,250 @@
+// BulkSolver.java
+// Headless entry point for solving puzzle datasets without the JavaFX UI.
+// Input: one puzzle per line, 81 characters, '1'-'9' for givens and '0' or '.' for empty cells.
+// The file is memory-mapped and parsed straight from the byte buffer (DSA: no per-line String).
+// Puzzles are grouped into batches solved on a worker pool; batches are written back in input order.
+//
+// Usage: java BulkSolver <input> [output] [--threads N] [--strategy propagation|dlx|naive] [--cache N]
+// --cache N shares an N-entry SolutionCache between the workers, so symmetric duplicates are solved once.
+// Each output line is the 81-digit solution, "invalid" (malformed line or clashing givens) or "unsolvable".
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BulkSolver {
+    private static final int BATCH_SIZE = 4096;
+    private static final long CHUNK_SIZE = 64L << 20; // Bytes mapped at a time
+    private static final byte MALFORMED = -1;
+    private static final byte[] INVALID = "invalid\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNSOLVABLE = "unsolvable\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final ThreadLocal<Worker> worker;
+    private final ArrayDeque<Future<Batch>> inFlight = new ArrayDeque<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private FileChannel out;
+    private Batch current = new Batch();
+    private long puzzles, solved, invalid, unsolvable;
+
+    private final SolutionCache cache; // Null unless --cache was given
+
+    public BulkSolver(int threads, String strategy) {
+        this(threads, strategy, null);
+    }
+
+    public BulkSolver(int threads, String strategy, SolutionCache cache) {
+        this.threads = threads;
+        this.cache = cache;
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.worker = ThreadLocal.withInitial(() -> {
+            Solver solver = newSolver(strategy);
+            if (cache != null) solver = new Solver(new CachingStrategy(solver.getStrategy(), cache));
+            return new Worker(solver);
+        });
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String input = null;
+        String output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String strategy = "propagation";
+        int cacheSize = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            } else if (args[i].equals("--strategy") && i + 1 < args.length) {
+                strategy = args[++i];
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheSize = Integer.parseInt(args[++i]);
+            } else if (input == null) {
+                input = args[i];
+            } else {
+                output = args[i];
+            }
+        }
+        if (input == null) {
+            System.err.println("Usage: java BulkSolver <input> [output] [--threads N] [--strategy propagation|dlx|naive] [--cache N]");
+            System.exit(2);
+        }
+        newSolver(strategy); // Fail fast on an unknown strategy
+
+        BulkSolver bulk = new BulkSolver(threads, strategy, cacheSize > 0 ? new SolutionCache(cacheSize) : null);
+        long start = System.nanoTime();
+        try {
+            bulk.run(Path.of(input), output == null ? null : Path.of(output));
+        } finally {
+            bulk.workers.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("puzzles=%d solved=%d unsolvable=%d invalid=%d threads=%d%n",
+                bulk.puzzles, bulk.solved, bulk.unsolvable, bulk.invalid, threads);
+        System.out.printf("elapsed=%.3fs throughput=%.0f puzzles/s%n", seconds, bulk.puzzles / seconds);
+        System.out.println("solve latency: " + bulk.latency.summary());
+        if (bulk.cache != null) System.out.println("solution cache: " + bulk.cache.summary());
+    }
+
+    static Solver newSolver(String strategy) {
+        switch (strategy) {
+            case "propagation": return new Solver(new PropagationStrategy());
+            case "dlx": return new Solver(new DancingLinksStrategy());
+            case "naive": return new Solver(new NaiveStrategy());
+            default: throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+
+    public void run(Path input, Path output) throws IOException, InterruptedException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outChannel = output == null ? null : FileChannel.open(output,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            out = outChannel;
+            long size = in.size();
+            long pos = 0;
+            while (pos < size) {
+                long len = Math.min(CHUNK_SIZE, size - pos);
+                boolean last = pos + len == size;
+                MappedByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                int consumed = parse(buf, last);
+                if (consumed == 0) throw new IOException("Line longer than " + CHUNK_SIZE + " bytes at offset " + pos);
+                pos += consumed;
+            }
+            submit();
+            while (!inFlight.isEmpty()) drainOldest();
+        }
+    }
+
+    // Parses every complete line in the buffer; returns the bytes consumed
+    private int parse(ByteBuffer buf, boolean last) throws IOException, InterruptedException {
+        int limit = buf.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int eol = lineStart;
+            while (eol < limit && buf.get(eol) != '\n') eol++;
+            if (eol == limit && !last) break; // Partial line: re-map it with the next chunk
+            int end = eol;
+            if (end > lineStart && buf.get(end - 1) == '\r') end--;
+            if (end > lineStart && buf.get(lineStart) != '#') addPuzzle(buf, lineStart, end);
+            lineStart = eol + 1;
+        }
+        return Math.min(lineStart, limit);
+    }
+
+    private void addPuzzle(ByteBuffer buf, int start, int end) throws IOException, InterruptedException {
+        byte[] cells = current.cells;
+        int base = current.count * 81;
+        if (end - start != 81) {
+            cells[base] = MALFORMED;
+        } else {
+            for (int i = 0; i < 81; i++) {
+                byte ch = buf.get(start + i);
+                if (ch >= '1' && ch <= '9') {
+                    cells[base + i] = (byte) (ch - '0');
+                } else if (ch == '0' || ch == '.') {
+                    cells[base + i] = 0;
+                } else {
+                    cells[base] = MALFORMED;
+                    break;
+                }
+            }
+        }
+        if (++current.count == BATCH_SIZE) submit();
+    }
+
+    private void submit() throws IOException, InterruptedException {
+        if (current.count == 0) return;
+        Batch batch = current;
+        inFlight.add(workers.submit(() -> worker.get().solve(batch)));
+        current = new Batch();
+        // Bound memory: keep a couple of batches per thread queued, then write the oldest
+        while (inFlight.size() > threads * 2) drainOldest();
+    }
+
+    private void drainOldest() throws IOException, InterruptedException {
+        Batch batch;
+        try {
+            batch = inFlight.poll().get();
+        } catch (ExecutionException ex) {
+            throw new IOException("Worker failed", ex.getCause());
+        }
+        puzzles += batch.count;
+        solved += batch.solved;
+        unsolvable += batch.unsolvable;
+        invalid += batch.invalid;
+        latency.merge(batch.latency);
+        if (out != null) {
+            ByteBuffer bytes = ByteBuffer.wrap(batch.output, 0, batch.outputLength);
+            while (bytes.hasRemaining()) out.write(bytes);
+        }
+    }
+
+    private static final class Batch {
+        final byte[] cells = new byte[BATCH_SIZE * 81];
+        final byte[] output = new byte[BATCH_SIZE * 82];
+        final LatencyHistogram latency = new LatencyHistogram();
+        int count;
+        int outputLength;
+        int solved, unsolvable, invalid;
+    }
+
+    // Per-thread solver and scratch grid, reused across batches
+    private static final class Worker {
+        private final Solver solver;
+        private final Validator validator = new Validator();
+        private final int[][] grid = new int[9][9];
+        private final int[] rowMasks = new int[9];
+        private final int[] colMasks = new int[9];
+        private final int[] boxMasks = new int[9];
+
+        Worker(Solver solver) {
+            this.solver = solver;
+        }
+
+        Batch solve(Batch batch) {
+            byte[] cells = batch.cells;
+            byte[] output = batch.output;
+            int o = 0;
+            for (int k = 0; k < batch.count; k++) {
+                int base = k * 81;
+                if (cells[base] == MALFORMED) {
+                    o = append(output, o, INVALID);
+                    batch.invalid++;
+                    continue;
+                }
+                for (int i = 0; i < 81; i++) grid[i / 9][i % 9] = cells[base + i];
+                if (!validator.buildTrackers(grid, rowMasks, colMasks, boxMasks)) {
+                    o = append(output, o, INVALID);
+                    batch.invalid++;
+                    continue;
+                }
+                long t0 = System.nanoTime();
+                boolean ok = solver.solve(grid);
+                batch.latency.record(System.nanoTime() - t0);
+                if (!ok) {
+                    o = append(output, o, UNSOLVABLE);
+                    batch.unsolvable++;
+                    continue;
+                }
+                for (int i = 0; i < 81; i++) output[o++] = (byte) ('0' + grid[i / 9][i % 9]);
+                output[o++] = '\n';
+                batch.solved++;
+            }
+            batch.outputLength = o;
+            return batch;
+        }
+
+        private static int append(byte[] output, int o, byte[] text) {
+            System.arraycopy(text, 0, output, o, text.length);
+            return o + text.length;
+        }
+    }
+}
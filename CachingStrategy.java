@@ -0,0 +1,42 @@
+// CachingStrategy.java
+// Puts a SolutionCache in front of another SolveStrategy (DSA: Decorator over the Strategy pattern).
+// Each grid is canonicalized first; a hit maps the cached canonical solution back through the inverse
+// transform, a miss solves with the wrapped strategy and stores the solution in canonical form.
+// Canonicalizing costs roughly one easy propagation solve, so the cache pays off on hard puzzles,
+// slower strategies and workloads with repeats. Hits report zero nodes and backtracks.
+// Holds a Canonicalizer and scratch grid: one instance per thread, the cache itself can be shared.
+
+public class CachingStrategy implements SolveStrategy {
+    private final SolveStrategy delegate;
+    private final SolutionCache cache;
+    private final Canonicalizer canonicalizer = new Canonicalizer();
+    private final int[][] scratch = new int[9][9];
+
+    public CachingStrategy(SolveStrategy delegate, SolutionCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public SolveResult solve(int[][] grid) {
+        CanonicalForm form = canonicalizer.canonicalize(grid);
+        PackedGrid cached = cache.get(form.getGrid());
+        if (cached == SolutionCache.UNSOLVABLE) return new SolveResult(false, 0, 0);
+        if (cached != null) {
+            cached.copyTo(scratch);
+            form.fromCanonical(scratch, grid);
+            return new SolveResult(true, 0, 0);
+        }
+        SolveResult result = delegate.solve(grid);
+        if (result.isSolved()) {
+            form.toCanonical(grid, scratch);
+            cache.put(form.getGrid(), PackedGrid.from(scratch));
+        } else {
+            cache.put(form.getGrid(), SolutionCache.UNSOLVABLE);
+        }
+        return result;
+    }
+
+    public SolveStrategy getDelegate() { return delegate; }
+    public SolutionCache getCache() { return cache; }
+}
@@ -0,0 +1,62 @@
+// CanonicalForm.java
+// A grid's canonical representative plus the symmetry that maps the grid onto it (see Canonicalizer).
+// The transform is: optional transpose, then output row i <- source row rowMap[i], output column j <-
+// source column colMap[j], then digit d -> relabel[d]. It is total on digits 1..9, so solutions map too.
+
+public class CanonicalForm {
+    private final PackedGrid grid;
+    private final boolean transposed;
+    private final int[] rowMap;
+    private final int[] colMap;
+    private final int[] relabel; // Indexed by digit, relabel[0] == 0
+    private final int[] inverse;
+    private final boolean exact;
+
+    CanonicalForm(PackedGrid grid, boolean transposed, int[] rowMap, int[] colMap, int[] relabel, boolean exact) {
+        this.grid = grid;
+        this.transposed = transposed;
+        this.rowMap = rowMap;
+        this.colMap = colMap;
+        this.relabel = relabel;
+        this.exact = exact;
+        this.inverse = new int[10];
+        for (int d = 0; d < 10; d++) inverse[relabel[d]] = d;
+    }
+
+    public PackedGrid getGrid() { return grid; }
+
+    /**
+     * 64-bit hash of the canonical grid: equal for every grid in the same symmetry class.
+     */
+    public long getHash() { return grid.hash64(); }
+
+    /**
+     * False if the search hit its tie limit (near-empty grids), so isomorphic grids may differ.
+     */
+    public boolean isExact() { return exact; }
+
+    /**
+     * Applies the transform to any grid in the source frame, e.g. the solution of the source puzzle.
+     */
+    public void toCanonical(int[][] source, int[][] out) {
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                int v = transposed ? source[colMap[j]][rowMap[i]] : source[rowMap[i]][colMap[j]];
+                out[i][j] = relabel[v];
+            }
+        }
+    }
+
+    /**
+     * Inverse transform: maps a grid in the canonical frame (e.g. a cached solution) back to the source frame.
+     */
+    public void fromCanonical(int[][] canonical, int[][] out) {
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                int v = inverse[canonical[i][j]];
+                if (transposed) out[colMap[j]][rowMap[i]] = v;
+                else out[rowMap[i]][colMap[j]] = v;
+            }
+        }
+    }
+}
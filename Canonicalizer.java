@@ -0,0 +1,175 @@
+// Canonicalizer.java
+// Maps a 9x9 grid to the lexicographically smallest grid in its symmetry class (DSA: breadth-first
+// branch and bound over the 2 x 6^8 = 3,359,232 geometric symmetries, digits relabelled on the fly).
+// Row 0 is tried with every column order (1,296 ways) for the source rows whose blanks can be pushed
+// furthest left; only the ties for the smallest row survive, and each later row extends the survivors with the rows still allowed
+// (same band, or a fresh band). Digits are relabelled in order of first appearance, which is what makes
+// relabelled copies collide. Survivors are packed into primitive arrays; the canonical grid is identical
+// for every isomorphic input as long as the ties fit in MAX_TIES.
+// Reuses its buffers between calls: one instance must not be shared between threads.
+
+public class Canonicalizer {
+    static final int MAX_TIES = 1 << 15;
+    private static final int[][] PERMS3 = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+    // Every column order that keeps stacks together: stack permutation x one permutation per stack
+    private static final int[][] LINE_MAPS = new int[1296][9];
+
+    static {
+        for (int p = 0; p < 1296; p++) {
+            int[] outer = PERMS3[p % 6];
+            for (int k = 0; k < 3; k++) {
+                int[] inner = PERMS3[(p / 6 / pow6(k)) % 6];
+                for (int j = 0; j < 3; j++) LINE_MAPS[p][k * 3 + j] = outer[k] * 3 + inner[j];
+            }
+        }
+    }
+
+    private static int pow6(int k) {
+        return k == 0 ? 1 : k == 1 ? 6 : 36;
+    }
+
+    private final int[][] source = new int[2][81]; // [transposed][r * 9 + c]
+    private final int[] canonical = new int[81];
+    private final int[] row = new int[9];
+    private final int[] rowKeys = new int[18]; // [transposed * 9 + r]
+    // Survivors: (transpose << 11 | column order), source rows 4 bits each, digit labels 4 bits each
+    // plus the next free label in bits 36-39
+    private int[] meta = new int[MAX_TIES];
+    private long[] rows = new long[MAX_TIES];
+    private long[] labels = new long[MAX_TIES];
+    private int[] nextMeta = new int[MAX_TIES];
+    private long[] nextRows = new long[MAX_TIES];
+    private long[] nextLabels = new long[MAX_TIES];
+    private int count;
+    private int nextCount;
+    private boolean truncated;
+
+    public CanonicalForm canonicalize(int[][] grid) {
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                source[0][r * 9 + c] = grid[r][c];
+                source[1][c * 9 + r] = grid[r][c];
+            }
+        }
+        truncated = false;
+
+        // Row 0: relabelled, a row is just blanks then 1, 2, 3..., so the best it can become is its
+        // stacks sorted by given count. Only the rows with the smallest such key try all column orders.
+        int bestKey = Integer.MAX_VALUE;
+        for (int tr = 0; tr < 18; tr++) {
+            rowKeys[tr] = rowKey(source[tr / 9], tr % 9);
+            bestKey = Math.min(bestKey, rowKeys[tr]);
+        }
+        nextCount = 0;
+        for (int tr = 0; tr < 18; tr++) {
+            if (rowKeys[tr] != bestKey) continue;
+            for (int p = 0; p < 1296; p++) offer(0, (tr / 9) << 11 | p, tr % 9, 1L << 36, 0L);
+        }
+        swap();
+
+        for (int level = 1; level < 9; level++) {
+            nextCount = 0;
+            for (int s = 0; s < count; s++) {
+                long used = rows[s];
+                if (level % 3 == 0) { // First row of a new band: any row of an unused band
+                    for (int band = 0; band < 3; band++) {
+                        if (!bandUsed(used, level, band)) {
+                            for (int k = 0; k < 3; k++) offer(level, meta[s], band * 3 + k, labels[s], used);
+                        }
+                    }
+                } else { // Rest of the band the previous row came from
+                    int band = (int) (used >>> ((level - 1) * 4) & 0xF) / 3;
+                    for (int k = 0; k < 3; k++) {
+                        int r = band * 3 + k;
+                        if (!rowUsed(used, level, r)) offer(level, meta[s], r, labels[s], used);
+                    }
+                }
+            }
+            swap();
+        }
+        return build();
+    }
+
+    // Givens per stack of the row, sorted ascending, 2 bits each
+    private static int rowKey(int[] src, int r) {
+        int a = 0, b = 0, c = 0;
+        for (int j = 0; j < 3; j++) {
+            if (src[r * 9 + j] != 0) a++;
+            if (src[r * 9 + 3 + j] != 0) b++;
+            if (src[r * 9 + 6 + j] != 0) c++;
+        }
+        int lo = Math.min(a, Math.min(b, c));
+        int hi = Math.max(a, Math.max(b, c));
+        return lo << 4 | (a + b + c - lo - hi) << 2 | hi;
+    }
+
+    private static boolean rowUsed(long used, int level, int r) {
+        for (int i = 0; i < level; i++) if ((used >>> (i * 4) & 0xF) == r) return true;
+        return false;
+    }
+
+    private static boolean bandUsed(long used, int level, int band) {
+        for (int i = 0; i < level; i++) if ((used >>> (i * 4) & 0xF) / 3 == band) return true;
+        return false;
+    }
+
+    // Builds output row 'level' from source row r; keeps the candidate if it ties or beats the best so far
+    private void offer(int level, int m, int r, long lab, long used) {
+        int[] src = source[m >>> 11];
+        int[] cols = LINE_MAPS[m & 0x7FF];
+        int base = level * 9;
+        boolean less = nextCount == 0; // First candidate of the level always wins
+        for (int j = 0; j < 9; j++) {
+            int d = src[r * 9 + cols[j]];
+            int v = 0;
+            if (d != 0) {
+                int shift = (d - 1) * 4;
+                v = (int) (lab >>> shift & 0xF);
+                if (v == 0) {
+                    v = (int) (lab >>> 36);
+                    lab = (lab | (long) v << shift) + (1L << 36);
+                }
+            }
+            if (!less) {
+                if (v > canonical[base + j]) return;
+                if (v < canonical[base + j]) less = true;
+            }
+            row[j] = v;
+        }
+        if (less) {
+            System.arraycopy(row, 0, canonical, base, 9);
+            nextCount = 0;
+        } else if (nextCount == MAX_TIES) {
+            truncated = true;
+            return;
+        }
+        nextMeta[nextCount] = m;
+        nextRows[nextCount] = used | (long) r << (level * 4);
+        nextLabels[nextCount] = lab;
+        nextCount++;
+    }
+
+    private void swap() {
+        int[] m = meta; meta = nextMeta; nextMeta = m;
+        long[] r = rows; rows = nextRows; nextRows = r;
+        long[] l = labels; labels = nextLabels; nextLabels = l;
+        count = nextCount;
+    }
+
+    private CanonicalForm build() {
+        PackedGrid grid = new PackedGrid();
+        for (int i = 0; i < 81; i++) grid.set(i, canonical[i]);
+        int[] rowMap = new int[9];
+        int[] colMap = LINE_MAPS[meta[0] & 0x7FF].clone();
+        for (int i = 0; i < 9; i++) rowMap[i] = (int) (rows[0] >>> (i * 4) & 0xF);
+        // Digits missing from the grid take the remaining labels in order, so solutions map too
+        int[] relabel = new int[10];
+        long lab = labels[0];
+        int next = (int) (lab >>> 36);
+        for (int d = 1; d <= 9; d++) {
+            relabel[d] = (int) (lab >>> ((d - 1) * 4) & 0xF);
+            if (relabel[d] == 0) relabel[d] = next++;
+        }
+        return new CanonicalForm(grid, (meta[0] >>> 11) == 1, rowMap, colMap, relabel, !truncated);
+    }
+}
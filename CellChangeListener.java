@@ -0,0 +1,7 @@
+// CellChangeListener.java
+// Callback for a single cell change (index = row * 9 + col), invoked after the new value is written.
+
+@FunctionalInterface
+public interface CellChangeListener {
+    void cellChanged(int index, int oldValue, int newValue);
+}
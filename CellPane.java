@@ -11,6 +11,8 @@ public class CellPane extends StackPane {
     private final Button button = new Button();
     private final int row;
     private final int col;
+    private int value = -1; // Last value shown; -1 until the first setValue
+    private final String baseStyle;
 
     public CellPane(int row, int col) {
         this.row = row;
@@ -18,7 +20,8 @@ public class CellPane extends StackPane {
         setPrefSize(64, 64);
         // Set checkerboard color (DSA: (row + col) % 2 for alternation)
         String bgColor = ((row + col) % 2 == 0) ? "lightgreen" : "darkgreen";
-        this.setStyle("-fx-background-color: " + bgColor + ";");
+        baseStyle = "-fx-background-color: " + bgColor + ";";
+        this.setStyle(baseStyle);
         // Set text color for contrast: black on light, white on dark
         String textColor = ((row + col) % 2 == 0) ? "black" : "white";
         button.setPrefSize(64, 64);
@@ -32,8 +35,21 @@ public class CellPane extends StackPane {
     public int getRow() { return row; }
     public int getCol() { return col; }
 
-    public void setValue(int v) {
+    public int getValue() { return value; }
+
+    // Highlight for the cell receiving keyboard input
+    public void setSelected(boolean selected) {
+        setStyle(selected ? baseStyle + " -fx-border-color: gold; -fx-border-width: 3;" : baseStyle);
+    }
+
+    /**
+     * Shows v; returns false without touching the button (no CSS/layout pass) if v is already shown.
+     */
+    public boolean setValue(int v) {
+        if (v == value) return false;
+        value = v;
         button.setText(v == 0 ? "" : Integer.toString(v));
         button.setDisable(v != 0); // Disable prefilled cells
+        return true;
     }
 }
@@ -0,0 +1,185 @@
+// ConcurrentBoard.java
+// Board that many threads can play at once (DSA: per-cell CAS on an AtomicIntegerArray, one atomic
+// 9-bit mask per unit as lock stripes).
+// A placement CASes the empty cell to a pending value, claims the digit's bit in its row, column and
+// box masks in that fixed order, then publishes the plain value.
+// If any bit is already taken, the earlier claims are rolled back and the move fails.
+// Two racing placements that share a unit meet at the first shared mask and exactly one wins,
+// so no unit can ever hold a digit twice.
+// Erase and undo CAS only plain values, so they never release the bits of a placement in flight.
+// Erasing CASes the value back to 0, then releases the bits; until then a racing placement of that
+// digit may fail (conservatively).
+// No locks: an operation only retries when another thread's CAS on the same word succeeded.
+// History is per player (PlayerLog) instead of a shared undo stack.
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ConcurrentBoard {
+    private static final int PENDING = 0x10; // Cell flag while a placement is claiming its unit bits
+    private static final int[][] UNITS_OF = new int[81][3]; // Row, column, box unit of each cell
+
+    static {
+        for (int cell = 0; cell < 81; cell++) {
+            int r = cell / 9, c = cell % 9;
+            UNITS_OF[cell][0] = r;
+            UNITS_OF[cell][1] = 9 + c;
+            UNITS_OF[cell][2] = 18 + ConstraintEngine.boxIndex(r, c);
+        }
+    }
+
+    private final AtomicIntegerArray cells = new AtomicIntegerArray(81);
+    private final AtomicIntegerArray unitMasks = new AtomicIntegerArray(27);
+    private final boolean[] given = new boolean[81];
+    private final int[] solution = new int[81];
+    private final AtomicInteger filled = new AtomicInteger();
+    private final AtomicInteger nextPlayer = new AtomicInteger();
+
+    public ConcurrentBoard(Puzzle p) {
+        for (int i = 0; i < 81; i++) {
+            int v = p.getPuzzle().get(i);
+            solution[i] = p.getSolution().get(i);
+            if (v == 0) continue;
+            given[i] = true;
+            cells.set(i, v);
+            for (int u : UNITS_OF[i]) unitMasks.set(u, unitMasks.get(u) | ConstraintEngine.bit(v));
+            filled.incrementAndGet();
+        }
+    }
+
+    public PlayerLog newPlayer(int logCapacity) {
+        return new PlayerLog(nextPlayer.getAndIncrement(), logCapacity);
+    }
+
+    /**
+     * Value of the cell, 0 if empty or still being claimed.
+     */
+    public int get(int cell) {
+        int v = cells.get(cell);
+        return v < PENDING ? v : 0;
+    }
+
+    /**
+     * Digits not yet used in the cell's row, column or box (a racy but consistent-per-unit read).
+     */
+    public int candidates(int cell) {
+        if (cells.get(cell) != 0) return 0;
+        int[] units = UNITS_OF[cell];
+        return ~(unitMasks.get(units[0]) | unitMasks.get(units[1]) | unitMasks.get(units[2])) & ConstraintEngine.ALL;
+    }
+
+    /**
+     * Places num in an empty cell if no unit already holds it. Returns false if another player got there first.
+     */
+    public boolean place(int cell, int num, PlayerLog log) {
+        if (num < 1 || num > 9 || !claim(cell, num)) return false;
+        log.push(cell, 0, num);
+        return true;
+    }
+
+    /**
+     * Clears a player-entered cell; givens cannot be erased.
+     */
+    public boolean erase(int cell, PlayerLog log) {
+        int v = get(cell);
+        if (v == 0 || given[cell] || !release(cell, v)) return false;
+        log.push(cell, v, 0);
+        return true;
+    }
+
+    /**
+     * Reverts this player's latest move if the cell still holds what that move left there.
+     * A move superseded by another player is dropped from the log either way; returns whether anything changed.
+     */
+    public boolean undo(PlayerLog log) {
+        int entry = log.peek();
+        if (entry < 0) return false;
+        int cell = PlayerLog.cellOf(entry);
+        int oldValue = PlayerLog.oldValueOf(entry);
+        int newValue = PlayerLog.newValueOf(entry);
+        boolean applied = oldValue == 0 ? release(cell, newValue) : claim(cell, oldValue);
+        log.pop(applied);
+        return applied;
+    }
+
+    // Exact once play stops; while moves are in flight it may lag the cells briefly
+    public int getFilledCount() { return filled.get(); }
+
+    public boolean isSolved() {
+        return filled.get() == 81; // Masks never let a unit repeat a digit
+    }
+
+    public boolean isGiven(int cell) { return given[cell]; }
+    public int getSolution(int cell) { return solution[cell]; }
+
+    public PackedGrid snapshot() {
+        PackedGrid grid = new PackedGrid();
+        for (int i = 0; i < 81; i++) grid.set(i, get(i)); // Pending placements read as empty
+        return grid;
+    }
+
+    /**
+     * Checks the board against its masks and the rules; null if consistent, else a description.
+     * Call only while no thread is playing.
+     */
+    public String checkConsistency() {
+        int[] masks = new int[27];
+        int count = 0;
+        for (int i = 0; i < 81; i++) {
+            int v = cells.get(i);
+            if (given[i] && v != solution[i]) return "given changed at cell " + i;
+            if (v == 0) continue;
+            count++;
+            for (int u : UNITS_OF[i]) {
+                if ((masks[u] & ConstraintEngine.bit(v)) != 0) return "digit " + v + " twice in unit " + u;
+                masks[u] |= ConstraintEngine.bit(v);
+            }
+        }
+        for (int u = 0; u < 27; u++) {
+            if (masks[u] != unitMasks.get(u)) return "mask of unit " + u + " out of sync";
+        }
+        if (count != filled.get()) return "filled count " + filled.get() + " but " + count + " cells filled";
+        return null;
+    }
+
+    // Empty cell -> pending num, then the digit's bit in each unit, then num; all or nothing
+    private boolean claim(int cell, int num) {
+        if (!cells.compareAndSet(cell, 0, PENDING | num)) return false;
+        int b = ConstraintEngine.bit(num);
+        int[] units = UNITS_OF[cell];
+        for (int k = 0; k < 3; k++) {
+            if (!setBit(units[k], b)) {
+                for (int j = k - 1; j >= 0; j--) clearBit(units[j], b);
+                cells.set(cell, 0);
+                return false;
+            }
+        }
+        cells.set(cell, num);
+        filled.incrementAndGet();
+        return true;
+    }
+
+    // value -> empty, then release the digit's bits
+    private boolean release(int cell, int value) {
+        if (given[cell] || !cells.compareAndSet(cell, value, 0)) return false;
+        int b = ConstraintEngine.bit(value);
+        for (int u : UNITS_OF[cell]) clearBit(u, b);
+        filled.decrementAndGet();
+        return true;
+    }
+
+    private boolean setBit(int unit, int b) {
+        while (true) {
+            int m = unitMasks.get(unit);
+            if ((m & b) != 0) return false;
+            if (unitMasks.compareAndSet(unit, m, m | b)) return true;
+        }
+    }
+
+    private void clearBit(int unit, int b) {
+        while (true) {
+            int m = unitMasks.get(unit);
+            if (unitMasks.compareAndSet(unit, m, m & ~b)) return;
+        }
+    }
+}
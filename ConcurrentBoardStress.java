@@ -0,0 +1,139 @@
+// ConcurrentBoardStress.java
+// Stress harness for ConcurrentBoard: N agent threads play one board at once, then the board is checked.
+// Race phase: every agent fills random empty cells with their solution digits until the board is solved;
+//   each empty cell must be claimed by exactly one agent, so the logs must add up to the empty count.
+// Chaos phase: for a fixed time agents place random candidates, erase random cells and undo their own
+//   moves; afterwards the unit masks must match the cells and no unit may repeat a digit.
+// Reports moves/sec (successful moves) and the share of attempts lost to another agent.
+//
+// Usage: java ConcurrentBoardStress [--agents N] [--seconds S] [--empty N]
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentBoardStress {
+    private static final int LOG_CAPACITY = 256;
+
+    public static void main(String[] args) throws InterruptedException {
+        int agents = Runtime.getRuntime().availableProcessors() * 2;
+        double seconds = 3;
+        int empty = 55;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--agents") && i + 1 < args.length) agents = Math.max(1, Integer.parseInt(args[++i]));
+            else if (args[i].equals("--seconds") && i + 1 < args.length) seconds = Double.parseDouble(args[++i]);
+            else if (args[i].equals("--empty") && i + 1 < args.length) empty = Integer.parseInt(args[++i]);
+        }
+        Puzzle puzzle = new GameGenerator(new Solver()).generate(empty);
+        boolean ok = race(puzzle, agents) & chaos(puzzle, agents, (long) (seconds * 1e9));
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean race(Puzzle puzzle, int agents) throws InterruptedException {
+        ConcurrentBoard board = new ConcurrentBoard(puzzle);
+        PlayerLog[] logs = new PlayerLog[agents];
+        LongAdder attempts = new LongAdder();
+        Thread[] threads = new Thread[agents];
+        CountDownLatch go = new CountDownLatch(1);
+        for (int a = 0; a < agents; a++) {
+            PlayerLog log = logs[a] = board.newPlayer(81);
+            threads[a] = new Thread(() -> {
+                await(go);
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long tries = 0;
+                while (!board.isSolved()) {
+                    int cell = rnd.nextInt(81);
+                    if (board.get(cell) != 0) continue;
+                    tries++;
+                    board.place(cell, board.getSolution(cell), log);
+                }
+                attempts.add(tries);
+            });
+            threads[a].start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread t : threads) t.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long moves = 0;
+        for (PlayerLog log : logs) moves += log.getMoves();
+        String problem = board.checkConsistency();
+        if (problem == null && moves != puzzle.getNumberOfEmptyCells()) {
+            problem = moves + " placements logged for " + puzzle.getNumberOfEmptyCells() + " empty cells";
+        }
+        if (problem == null && !board.snapshot().equals(puzzle.getSolution())) problem = "board differs from solution";
+        System.out.printf("race:  agents=%d placements=%d attempts=%d lost=%.1f%% elapsed=%.3fms %s%n",
+                agents, moves, attempts.sum(), lostPercent(moves, attempts.sum()), elapsed * 1e3,
+                problem == null ? "OK" : "FAILED: " + problem);
+        return problem == null;
+    }
+
+    private static boolean chaos(Puzzle puzzle, int agents, long nanos) throws InterruptedException {
+        ConcurrentBoard board = new ConcurrentBoard(puzzle);
+        PlayerLog[] logs = new PlayerLog[agents];
+        LongAdder attempts = new LongAdder();
+        LongAdder solved = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread[] threads = new Thread[agents];
+        CountDownLatch go = new CountDownLatch(1);
+        for (int a = 0; a < agents; a++) {
+            PlayerLog log = logs[a] = board.newPlayer(LOG_CAPACITY);
+            threads[a] = new Thread(() -> {
+                await(go);
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long tries = 0;
+                while (!stop.get()) {
+                    int cell = rnd.nextInt(81);
+                    int op = rnd.nextInt(100);
+                    tries++;
+                    if (op < 70) {
+                        int cand = board.candidates(cell);
+                        if (cand == 0) continue;
+                        for (int skip = rnd.nextInt(Integer.bitCount(cand)); skip > 0; skip--) cand &= cand - 1;
+                        if (board.place(cell, Integer.numberOfTrailingZeros(cand) + 1, log) && board.isSolved()) {
+                            solved.increment();
+                        }
+                    } else if (op < 85) {
+                        board.erase(cell, log);
+                    } else {
+                        board.undo(log);
+                    }
+                }
+                attempts.add(tries);
+            });
+            threads[a].start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        stop.set(true);
+        for (Thread t : threads) t.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long moves = 0, undone = 0;
+        for (PlayerLog log : logs) {
+            moves += log.getMoves();
+            undone += log.getUndone();
+        }
+        String problem = board.checkConsistency();
+        System.out.printf("chaos: agents=%d moves=%d undone=%d attempts=%d lost=%.1f%% solved=%d elapsed=%.3fs%n",
+                agents, moves, undone, attempts.sum(), lostPercent(moves + undone, attempts.sum()), solved.sum(), elapsed);
+        System.out.printf("chaos: %.0f moves/s filled=%d/81 %s%n", (moves + undone) / elapsed, board.getFilledCount(),
+                problem == null ? "OK" : "FAILED: " + problem);
+        return problem == null;
+    }
+
+    private static double lostPercent(long succeeded, long attempts) {
+        return attempts == 0 ? 0 : 100.0 * (attempts - succeeded) / attempts;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+// ConcurrentLatencyHistogram.java
+// Lock-free variant of LatencyHistogram for recording from many threads (DSA: AtomicLongArray buckets).
+// Same log-linear buckets; record() is one atomic increment per bucket plus LongAdder sums, no locks
+// and no allocation. Percentiles come from snapshot(), which copies the buckets into a LatencyHistogram.
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentLatencyHistogram {
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(LatencyHistogram.bucketOf(nanos));
+        sum.add(nanos);
+        long m = max.get();
+        while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+    }
+
+    /**
+     * Point-in-time copy; concurrent records may land on either side of it.
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram h = new LatencyHistogram();
+        long total = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) total += counts.get(i);
+        long s = sum.sum();
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            long c = counts.get(i);
+            // The exact sum is spread over the buckets by count, so the snapshot keeps the true mean
+            if (c != 0) h.add(i, c, total == 0 ? 0 : (long) ((double) s * c / total));
+        }
+        h.setMax(max.get());
+        return h;
+    }
+
+    public void reset() {
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) counts.set(i, 0);
+        sum.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,121 @@
+// ConstraintEngine.java
+// Primitive row/column/box trackers (DSA: Bitmasks, one 9-bit int per unit instead of HashSet<Integer>).
+// Bit (v - 1) of a mask is set when digit v is already used in that unit, so no boxing or hashing is needed.
+
+public class ConstraintEngine {
+    public static final int ALL = 0x1FF; // Digits 1..9
+
+    // Cell indices (row * 9 + col) of the 27 units: rows 0-8, columns 9-17, boxes 18-26
+    public static final int[][] UNITS = new int[27][9];
+    // The 20 cells sharing a row, column or box with each cell
+    public static final int[][] PEERS = new int[81][20];
+
+    static {
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                UNITS[i][j] = i * 9 + j;
+                UNITS[9 + i][j] = j * 9 + i;
+                UNITS[18 + i][j] = ((i / 3) * 3 + j / 3) * 9 + (i % 3) * 3 + j % 3;
+            }
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            int r = cell / 9, c = cell % 9, n = 0;
+            for (int other = 0; other < 81; other++) {
+                int or = other / 9, oc = other % 9;
+                if (other != cell && (or == r || oc == c || boxIndex(or, oc) == boxIndex(r, c))) {
+                    PEERS[cell][n++] = other;
+                }
+            }
+        }
+    }
+
+    private final int[] rowMasks = new int[9];
+    private final int[] colMasks = new int[9];
+    private final int[] boxMasks = new int[9];
+
+    /**
+     * Rebuilds all masks from the grid. Returns false if the givens already clash.
+     */
+    public boolean load(int[][] grid) {
+        return fillMasks(grid, rowMasks, colMasks, boxMasks);
+    }
+
+    public int candidates(int row, int col) {
+        return ~(rowMasks[row] | colMasks[col] | boxMasks[boxIndex(row, col)]) & ALL;
+    }
+
+    public boolean canPlace(int row, int col, int num) {
+        return (candidates(row, col) & bit(num)) != 0;
+    }
+
+    public void place(int row, int col, int num) {
+        int b = bit(num);
+        rowMasks[row] |= b;
+        colMasks[col] |= b;
+        boxMasks[boxIndex(row, col)] |= b;
+    }
+
+    public void remove(int row, int col, int num) {
+        int b = ~bit(num);
+        rowMasks[row] &= b;
+        colMasks[col] &= b;
+        boxMasks[boxIndex(row, col)] &= b;
+    }
+
+    public static int bit(int num) {
+        return 1 << (num - 1);
+    }
+
+    public static int boxIndex(int row, int col) {
+        return (row / 3) * 3 + (col / 3);
+    }
+
+    /**
+     * Fills one mask per row, column and box from the grid (DSA: single O(81) pass).
+     * Returns false if a digit appears twice in any unit.
+     */
+    public static boolean fillMasks(int[][] grid, int[] rowMasks, int[] colMasks, int[] boxMasks) {
+        boolean consistent = true;
+        for (int i = 0; i < 9; i++) {
+            rowMasks[i] = 0;
+            colMasks[i] = 0;
+            boxMasks[i] = 0;
+        }
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int v = grid[r][c];
+                if (v == 0) continue;
+                int b = bit(v);
+                int box = boxIndex(r, c);
+                if (((rowMasks[r] | colMasks[c] | boxMasks[box]) & b) != 0) consistent = false;
+                rowMasks[r] |= b;
+                colMasks[c] |= b;
+                boxMasks[box] |= b;
+            }
+        }
+        return consistent;
+    }
+
+    /**
+     * Mask of digits present in the row, column and box of (row, col), read straight from the grid.
+     */
+    public static int usedMask(int[][] grid, int row, int col) {
+        int used = 0;
+        for (int i = 0; i < 9; i++) {
+            used |= digitBit(grid[row][i]) | digitBit(grid[i][col]);
+        }
+        int br = (row / 3) * 3;
+        int bc = (col / 3) * 3;
+        for (int r = br; r < br + 3; r++) {
+            for (int c = bc; c < bc + 3; c++) {
+                used |= digitBit(grid[r][c]);
+            }
+        }
+        return used;
+    }
+
+    // 0 (empty) maps to no bit
+    private static int digitBit(int v) {
+        return v == 0 ? 0 : bit(v);
+    }
+}
@@ -0,0 +1,15 @@
+// CountersMXBean.java
+// JMX view of the Metrics counters and gauges, registered as sudoku:type=Counters.
+
+public interface CountersMXBean {
+    long getSolveCalls();
+    long getSolveNodes();
+    long getSolveBacktracks();
+    long getGenerateCalls();
+    long getGenerateSolverCalls();
+    long getPlacementsAccepted();
+    long getPlacementsRejected();
+    long getRenderedCells();
+    int getUndoDepth();
+    int getRedoDepth();
+}
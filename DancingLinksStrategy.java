@@ -0,0 +1,177 @@
+// DancingLinksStrategy.java
+// Knuth's Algorithm X on dancing links (DSA: Exact cover with circular doubly linked lists in int arrays).
+// 324 constraint columns (cell, row-digit, column-digit, box-digit) and 729 candidate rows (cell x digit).
+// The matrix is built once in the constructor; each solve covers the givens, searches, then uncovers
+// everything in reverse, so no links are allocated per call. One instance must not be shared between threads.
+
+public class DancingLinksStrategy implements SolveStrategy {
+    private static final int COLUMNS = 324;
+    private static final int ROWS = 729;
+    private static final int ROOT = 0;
+
+    // Node arrays: index 0 is the root, 1..324 are column headers, then 4 nodes per candidate row
+    private final int[] left = new int[1 + COLUMNS + ROWS * 4];
+    private final int[] right = new int[left.length];
+    private final int[] up = new int[left.length];
+    private final int[] down = new int[left.length];
+    private final int[] column = new int[left.length];
+    private final int[] rowOf = new int[left.length]; // Candidate id (cell * 9 + digit - 1)
+    private final int[] size = new int[1 + COLUMNS];
+    private final int[] rowStart = new int[ROWS];
+
+    private final int[] solution = new int[81]; // Nodes of the rows currently chosen by search
+    private final int[] givens = new int[81];   // Nodes of the rows selected for the givens
+    private final int[] scratchRows = new int[9];
+    private final int[] scratchCols = new int[9];
+    private final int[] scratchBoxes = new int[9];
+    private int depth;
+    private int found;
+    private int limit;
+    private long nodes;
+    private long backtracks;
+    private int[][] target; // Grid to write the first solution into, or null when only counting
+
+    public DancingLinksStrategy() {
+        for (int c = 0; c <= COLUMNS; c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+        int node = COLUMNS + 1;
+        for (int id = 0; id < ROWS; id++) {
+            int cell = id / 9;
+            int d = id % 9;
+            int r = cell / 9;
+            int c = cell % 9;
+            int first = node;
+            rowStart[id] = first;
+            int[] cols = {
+                    1 + cell,
+                    1 + 81 + r * 9 + d,
+                    1 + 162 + c * 9 + d,
+                    1 + 243 + ConstraintEngine.boxIndex(r, c) * 9 + d
+            };
+            for (int k = 0; k < 4; k++, node++) {
+                int col = cols[k];
+                column[node] = col;
+                rowOf[node] = id;
+                // Append to the bottom of the column
+                up[node] = up[col];
+                down[node] = col;
+                down[up[col]] = node;
+                up[col] = node;
+                size[col]++;
+                // Link into the row ring
+                left[node] = k == 0 ? first + 3 : node - 1;
+                right[node] = k == 3 ? first : node + 1;
+            }
+        }
+    }
+
+    @Override
+    public SolveResult solve(int[][] grid) {
+        boolean solved = run(grid, 1, grid) == 1;
+        return new SolveResult(solved, nodes, backtracks);
+    }
+
+    /**
+     * Counts solutions of the grid, stopping as soon as limit is reached (DSA: early exit).
+     * The grid is left unchanged. Returns 0 if the givens already clash.
+     */
+    public int countSolutions(int[][] grid, int limit) {
+        return run(grid, limit, null);
+    }
+
+    private int run(int[][] grid, int maxSolutions, int[][] out) {
+        nodes = 0;
+        backtracks = 0;
+        found = 0;
+        depth = 0;
+        limit = maxSolutions;
+        target = out;
+        if (maxSolutions <= 0) return 0;
+        if (!ConstraintEngine.fillMasks(grid, scratchRows, scratchCols, scratchBoxes)) return 0; // Givens already clash
+
+        int given = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            int v = grid[cell / 9][cell % 9];
+            if (v != 0) {
+                int start = rowStart[cell * 9 + v - 1];
+                select(start);
+                givens[given++] = start;
+            }
+        }
+        search();
+        for (int i = given - 1; i >= 0; i--) deselect(givens[i]);
+        target = null;
+        return found;
+    }
+
+    private void search() {
+        nodes++;
+        if (right[ROOT] == ROOT) {
+            found++;
+            if (found == 1 && target != null) {
+                for (int i = 0; i < depth; i++) {
+                    int id = rowOf[solution[i]];
+                    target[id / 81][(id / 9) % 9] = id % 9 + 1;
+                }
+            }
+            return;
+        }
+
+        // Choose the column with the fewest remaining rows (DSA: Knuth's S heuristic)
+        int col = right[ROOT];
+        for (int c = right[col]; c != ROOT && size[col] > 1; c = right[c]) {
+            if (size[c] < size[col]) col = c;
+        }
+        if (size[col] == 0) return;
+
+        cover(col);
+        for (int r = down[col]; r != col && found < limit; r = down[r]) {
+            solution[depth++] = r;
+            for (int j = right[r]; j != r; j = right[j]) cover(column[j]);
+            search();
+            for (int j = left[r]; j != r; j = left[j]) uncover(column[j]);
+            depth--;
+            if (found < limit) backtracks++;
+        }
+        uncover(col);
+    }
+
+    private void select(int start) {
+        cover(column[start]);
+        for (int j = right[start]; j != start; j = right[j]) cover(column[j]);
+    }
+
+    private void deselect(int start) {
+        for (int j = left[start]; j != start; j = left[j]) uncover(column[j]);
+        uncover(column[start]);
+    }
+
+    private void cover(int col) {
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[col]] = col;
+        left[right[col]] = col;
+    }
+}
@@ -0,0 +1,308 @@
+// DifficultyRater.java
+// Rates a puzzle by solving it with a ladder of human techniques (DSA: Bitmask candidate grid).
+// After every step the ladder restarts from the easiest technique, so counts reflect what a player needs.
+// Candidate masks are updated incrementally: a placement clears its digit from the 20 peers only,
+// and eliminations clear single bits, so no technique rebuilds the grid.
+// Reuses its arrays between calls: one instance must not be shared between threads.
+
+import java.util.Arrays;
+
+public class DifficultyRater {
+    private static final int[][] UNITS = ConstraintEngine.UNITS;
+
+    private final int[] values = new int[81];
+    private final int[] cand = new int[81];      // Candidate mask per cell, 0 once filled
+    private final int[] counts = new int[Technique.values().length];
+    private final int[] subsetCells = new int[9];
+    private final int[] subsetMasks = new int[9];
+    private int empty;
+    private boolean contradiction;
+    private boolean stopAtPlacement; // nextStep(): halt after the first placement
+    private int firstCell;
+    private int firstValue;
+
+    public Rating rate(int[][] grid) {
+        load(grid);
+        stopAtPlacement = false;
+        runLadder();
+        return new Rating(empty == 0 && !contradiction, counts.clone());
+    }
+
+    /**
+     * Runs the ladder only until it places a digit, and returns that placement tagged with the
+     * hardest technique needed to reach it. Returns null if the ladder gets stuck first.
+     */
+    public Hint nextStep(int[][] grid) {
+        load(grid);
+        stopAtPlacement = true;
+        firstCell = -1;
+        runLadder();
+        if (firstCell < 0 || contradiction) return null;
+        Technique hardest = Technique.NAKED_SINGLE;
+        for (Technique t : Technique.values()) {
+            if (counts[t.ordinal()] > 0) hardest = t;
+        }
+        return new Hint(firstCell, firstValue, hardest);
+    }
+
+    private void runLadder() {
+        while (empty > 0 && !contradiction && !(stopAtPlacement && firstCell >= 0)) {
+            if (nakedSingles()) continue;
+            if (hiddenSingles()) continue;
+            if (lockedCandidates()) continue;
+            if (nakedSubset(2, Technique.NAKED_PAIR)) continue;
+            if (hiddenSubset(2, Technique.HIDDEN_PAIR)) continue;
+            if (nakedSubset(3, Technique.NAKED_TRIPLE)) continue;
+            if (hiddenSubset(3, Technique.HIDDEN_TRIPLE)) continue;
+            if (fish(2, Technique.X_WING)) continue;
+            if (fish(3, Technique.SWORDFISH)) continue;
+            break; // Stuck: needs techniques beyond the ladder (or guessing)
+        }
+    }
+
+    private void load(int[][] grid) {
+        empty = 81;
+        contradiction = false;
+        Arrays.fill(counts, 0);
+        Arrays.fill(values, 0);
+        Arrays.fill(cand, ConstraintEngine.ALL);
+        for (int cell = 0; cell < 81; cell++) {
+            int v = grid[cell / 9][cell % 9];
+            if (v != 0) {
+                if ((cand[cell] & ConstraintEngine.bit(v)) == 0) contradiction = true; // Givens clash
+                place(cell, v);
+            }
+        }
+    }
+
+    private void place(int cell, int v) {
+        if (stopAtPlacement && firstCell < 0) {
+            firstCell = cell;
+            firstValue = v;
+        }
+        int b = ConstraintEngine.bit(v);
+        values[cell] = v;
+        cand[cell] = 0;
+        empty--;
+        for (int peer : ConstraintEngine.PEERS[cell]) {
+            if ((cand[peer] & b) != 0) {
+                cand[peer] &= ~b;
+                if (cand[peer] == 0) contradiction = true;
+            }
+        }
+    }
+
+    // Clears bits from a cell's candidates; true if anything was removed
+    private boolean eliminate(int cell, int bits) {
+        if ((cand[cell] & bits) == 0) return false;
+        cand[cell] &= ~bits;
+        if (values[cell] == 0 && cand[cell] == 0) contradiction = true;
+        return true;
+    }
+
+    private boolean nakedSingles() {
+        boolean progress = false;
+        for (int cell = 0; cell < 81; cell++) {
+            int m = cand[cell];
+            if (values[cell] == 0 && m != 0 && (m & (m - 1)) == 0) {
+                place(cell, Integer.numberOfTrailingZeros(m) + 1);
+                counts[Technique.NAKED_SINGLE.ordinal()]++;
+                progress = true;
+            }
+        }
+        return progress;
+    }
+
+    private boolean hiddenSingles() {
+        boolean progress = false;
+        for (int[] unit : UNITS) {
+            int once = 0, twice = 0;
+            for (int cell : unit) {
+                twice |= once & cand[cell];
+                once |= cand[cell];
+            }
+            for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                int b = hidden & -hidden;
+                for (int cell : unit) {
+                    if ((cand[cell] & b) != 0) { // Still there unless an earlier placement removed it
+                        place(cell, Integer.numberOfTrailingZeros(b) + 1);
+                        counts[Technique.HIDDEN_SINGLE.ordinal()]++;
+                        progress = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return progress;
+    }
+
+    // Pointing (box -> line) and claiming (line -> box)
+    private boolean lockedCandidates() {
+        for (int u = 0; u < 27; u++) {
+            int[] unit = UNITS[u];
+            for (int d = 0; d < 9; d++) {
+                int b = 1 << d;
+                int first = -1, rowMatch = -1, colMatch = -1, boxMatch = -1;
+                for (int cell : unit) {
+                    if ((cand[cell] & b) == 0) continue;
+                    int r = cell / 9, c = cell % 9, bx = ConstraintEngine.boxIndex(r, c);
+                    if (first < 0) {
+                        first = cell;
+                        rowMatch = r;
+                        colMatch = c;
+                        boxMatch = bx;
+                    } else {
+                        if (r != rowMatch) rowMatch = -1;
+                        if (c != colMatch) colMatch = -1;
+                        if (bx != boxMatch) boxMatch = -1;
+                    }
+                }
+                if (first < 0) continue;
+                boolean changed = false;
+                if (u >= 18) { // Box: candidates confined to one row or column
+                    if (rowMatch >= 0) changed |= eliminateOutside(UNITS[rowMatch], u, b);
+                    if (colMatch >= 0) changed |= eliminateOutside(UNITS[9 + colMatch], u, b);
+                } else if (boxMatch >= 0) { // Line: candidates confined to one box
+                    changed = eliminateOutside(UNITS[18 + boxMatch], u, b);
+                }
+                if (changed) {
+                    counts[Technique.LOCKED_CANDIDATES.ordinal()]++;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Removes bits from cells of target that are not in unit 'keep'
+    private boolean eliminateOutside(int[] target, int keep, int bits) {
+        boolean changed = false;
+        for (int cell : target) {
+            if (!inUnit(cell, keep)) changed |= eliminate(cell, bits);
+        }
+        return changed;
+    }
+
+    private static boolean inUnit(int cell, int u) {
+        int r = cell / 9, c = cell % 9;
+        if (u < 9) return r == u;
+        if (u < 18) return c == u - 9;
+        return ConstraintEngine.boxIndex(r, c) == u - 18;
+    }
+
+    // k cells in a unit whose candidates together hold exactly k digits.
+    // The subset loops below run the third index once, unused, when k == 2.
+    private boolean nakedSubset(int k, Technique technique) {
+        for (int[] unit : UNITS) {
+            int n = 0;
+            for (int cell : unit) {
+                int size = Integer.bitCount(cand[cell]);
+                if (values[cell] == 0 && size >= 2 && size <= k) {
+                    subsetCells[n] = cell;
+                    subsetMasks[n++] = cand[cell];
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    for (int l = (k == 2 ? n - 1 : j + 1); l < n; l++) {
+                        int union = subsetMasks[i] | subsetMasks[j] | (k == 2 ? 0 : subsetMasks[l]);
+                        if (Integer.bitCount(union) != k) continue;
+                        boolean changed = false;
+                        for (int cell : unit) {
+                            if (cell != subsetCells[i] && cell != subsetCells[j]
+                                    && (k == 2 || cell != subsetCells[l])) {
+                                changed |= eliminate(cell, union);
+                            }
+                        }
+                        if (changed) {
+                            counts[technique.ordinal()]++;
+                            return true;
+                        }
+                        if (k == 2) break;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // k digits in a unit confined to exactly k cells: those cells lose every other candidate
+    private boolean hiddenSubset(int k, Technique technique) {
+        for (int[] unit : UNITS) {
+            int n = 0;
+            for (int d = 0; d < 9; d++) {
+                int positions = 0;
+                for (int p = 0; p < 9; p++) {
+                    if ((cand[unit[p]] & (1 << d)) != 0) positions |= 1 << p;
+                }
+                int size = Integer.bitCount(positions);
+                if (size >= 2 && size <= k) {
+                    subsetCells[n] = 1 << d; // Digit bit
+                    subsetMasks[n++] = positions;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    for (int l = (k == 2 ? n - 1 : j + 1); l < n; l++) {
+                        int positions = subsetMasks[i] | subsetMasks[j] | (k == 2 ? 0 : subsetMasks[l]);
+                        if (Integer.bitCount(positions) != k) continue;
+                        int digits = subsetCells[i] | subsetCells[j] | (k == 2 ? 0 : subsetCells[l]);
+                        boolean changed = false;
+                        for (int p = positions; p != 0; p &= p - 1) {
+                            changed |= eliminate(unit[Integer.numberOfTrailingZeros(p)], ~digits & ConstraintEngine.ALL);
+                        }
+                        if (changed) {
+                            counts[technique.ordinal()]++;
+                            return true;
+                        }
+                        if (k == 2) break;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // X-Wing (n = 2) and Swordfish (n = 3), with rows or columns as base lines
+    private boolean fish(int n, Technique technique) {
+        for (int d = 0; d < 9; d++) {
+            int b = 1 << d;
+            for (int base = 0; base <= 9; base += 9) { // 0: rows are base, 9: columns are base
+                int count = 0;
+                for (int line = 0; line < 9; line++) {
+                    int cover = 0;
+                    for (int p = 0; p < 9; p++) {
+                        if ((cand[UNITS[base + line][p]] & b) != 0) cover |= 1 << p;
+                    }
+                    int size = Integer.bitCount(cover);
+                    if (size >= 2 && size <= n) {
+                        subsetCells[count] = line;
+                        subsetMasks[count++] = cover;
+                    }
+                }
+                for (int i = 0; i < count; i++) {
+                    for (int j = i + 1; j < count; j++) {
+                        for (int l = (n == 2 ? count - 1 : j + 1); l < count; l++) {
+                            int covers = subsetMasks[i] | subsetMasks[j] | (n == 2 ? 0 : subsetMasks[l]);
+                            if (Integer.bitCount(covers) != n) continue;
+                            int lines = (1 << subsetCells[i]) | (1 << subsetCells[j]) | (n == 2 ? 0 : 1 << subsetCells[l]);
+                            boolean changed = false;
+                            for (int cv = covers; cv != 0; cv &= cv - 1) {
+                                int[] coverUnit = UNITS[(9 - base) + Integer.numberOfTrailingZeros(cv)];
+                                for (int p = 0; p < 9; p++) {
+                                    if ((lines & (1 << p)) == 0) changed |= eliminate(coverUnit[p], b);
+                                }
+                            }
+                            if (changed) {
+                                counts[technique.ordinal()]++;
+                                return true;
+                            }
+                            if (n == 2) break;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
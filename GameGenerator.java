@@ -1,57 +1,258 @@
 // GameGenerator.java
-// Handles puzzle generation (DSA: ArrayList for shuffling and randomization).
+// Handles puzzle generation (DSA: Fisher-Yates shuffles of primitive arrays, per-thread scratch grids).
+// Solutions are not solved from scratch: a small bank of seed grids is solved once per generator, and each
+// puzzle takes one of them through a random validity-preserving symmetry (digit relabeling, band/stack and
+// row/column permutations within them, transposition), i.e. one of ~1.2e12 variants per seed grid.
+// UNIQUE/SYMMETRIC modes keep a removal only if a bounded solution count (DSA: early exit at 2) stays at 1.
+// Safe to share between threads as long as the Solver's strategy is (the default one is);
+// each thread gets its own solution counter, scratch arrays and SplittableRandom.
+// With a seed, every puzzle draws from the next split of one seeded SplittableRandom, so a run that
+// generates puzzles in the same order (e.g. single-threaded) is exactly reproducible.
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.SplittableRandom;
 
 public class GameGenerator {
+    public enum Mode {
+        RANDOM,    // Blank cells blindly; the puzzle may have several solutions
+        UNIQUE,    // Blank one cell at a time, keeping only removals that leave one solution
+        SYMMETRIC  // As UNIQUE, but blank cells in 180-degree rotational pairs
+    }
+
+    private static final int SEED_GRIDS = 8;
+
     private final Solver solver;
+    private final ThreadLocal<DancingLinksStrategy> counter = ThreadLocal.withInitial(DancingLinksStrategy::new);
+    private final ThreadLocal<DifficultyRater> rater = ThreadLocal.withInitial(DifficultyRater::new);
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(SplittableRandom::new);
+    private final SplittableRandom seeded; // Null unless a seed was given; guarded by itself
+    private final int[][] seedGrids = new int[SEED_GRIDS][81];
+    private final Mode mode;
+    private volatile int lastSolverCalls;
 
     public GameGenerator(Solver solver) {
+        this(solver, Mode.RANDOM);
+    }
+
+    public GameGenerator(Solver solver, Mode mode) {
+        this(solver, mode, null);
+    }
+
+    /**
+     * A generator whose puzzles are fully determined by the seed and the order they are generated in.
+     */
+    public GameGenerator(Solver solver, Mode mode, long seed) {
+        this(solver, mode, new SplittableRandom(seed));
+    }
+
+    private GameGenerator(Solver solver, Mode mode, SplittableRandom seeded) {
         this.solver = solver;
+        this.mode = mode;
+        this.seeded = seeded;
+        SplittableRandom rnd = seeded != null ? seeded.split() : new SplittableRandom();
+        int[][] grid = new int[9][9];
+        for (int[] seedGrid : seedGrids) {
+            do {
+                clear(grid);
+                fillDiagonalBlocks(grid, new int[9], rnd);
+            } while (!solver.solve(grid)); // Retry if solve fails (rare)
+            for (int i = 0; i < 81; i++) seedGrid[i] = grid[i / 9][i % 9];
+        }
     }
 
     public void generateNew(BoardModel model) {
-        int[][] solution = model.getSolution();
-        clear(solution);
-        fillDiagonalBlocks(solution);
-        if (!solver.solve(solution)) {
-            generateNew(model); // Retry if solve fails (rare)
-            return;
+        model.load(generate(model.getNumberOfEmptyCells()));
+    }
+
+    /**
+     * Builds a standalone puzzle without touching any BoardModel (used by PuzzleService workers).
+     */
+    public Puzzle generate(int numberOfEmptyCells) {
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0;
+        Scratch sc = scratch.get();
+        int[][] puzzle = sc.puzzle;
+        int[][] solution = sc.solution;
+        int solverCalls = generate(puzzle, solution, numberOfEmptyCells, sc);
+        lastSolverCalls = solverCalls;
+        if (Metrics.ENABLED) Metrics.generated(System.nanoTime() - t0, solverCalls);
+        return new Puzzle(PackedGrid.from(puzzle), PackedGrid.from(solution), numberOfEmptyCells, solverCalls);
+    }
+
+    /**
+     * Generates until DifficultyRater grades a puzzle within [minGrade, maxGrade], up to maxAttempts tries.
+     * If none lands in the band, returns the attempt whose grade came closest.
+     */
+    public Puzzle generate(int numberOfEmptyCells, double minGrade, double maxGrade, int maxAttempts) {
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0;
+        DifficultyRater rater = this.rater.get();
+        Scratch sc = scratch.get();
+        int[][] puzzle = sc.puzzle;
+        int[][] solution = sc.solution;
+        Puzzle best = null;
+        double bestDistance = Double.MAX_VALUE;
+        int solverCalls = 0;
+        for (int attempt = 0; attempt < Math.max(1, maxAttempts); attempt++) {
+            solverCalls += generate(puzzle, solution, numberOfEmptyCells, sc);
+            Rating rating = rater.rate(puzzle);
+            double grade = rating.getGrade();
+            double distance = grade < minGrade ? minGrade - grade : grade > maxGrade ? grade - maxGrade : 0;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = new Puzzle(PackedGrid.from(puzzle), PackedGrid.from(solution), numberOfEmptyCells, solverCalls, rating);
+                if (distance == 0) break;
+            }
         }
+        lastSolverCalls = solverCalls;
+        if (Metrics.ENABLED) Metrics.generated(System.nanoTime() - t0, solverCalls);
+        return new Puzzle(best.getPuzzle(), best.getSolution(), numberOfEmptyCells, solverCalls, best.getRating());
+    }
+
+    // Writes a transformed seed grid to solution, copies it to puzzle and blanks cells; returns the solver calls spent
+    private int generate(int[][] puzzle, int[][] solution, int numberOfEmptyCells, Scratch sc) {
+        SplittableRandom rnd = nextRandom();
+        transform(seedGrids[rnd.nextInt(SEED_GRIDS)], solution, sc, rnd);
         // Copy to puzzle and remove cells
-        int[][] puzzle = model.getPuzzle();
         for (int r = 0; r < 9; r++) System.arraycopy(solution[r], 0, puzzle[r], 0, 9);
-        removeRandomCells(model.getNumberOfEmptyCells(), puzzle);
+        if (mode == Mode.RANDOM) {
+            removeRandomCells(numberOfEmptyCells, puzzle, sc.positions, rnd);
+            return 0;
+        }
+        return removeUniqueCells(numberOfEmptyCells, puzzle, mode == Mode.SYMMETRIC, sc.positions, rnd);
+    }
+
+    // Per-thread stream, or the next split of the seeded one so results do not depend on the thread
+    private SplittableRandom nextRandom() {
+        if (seeded == null) return random.get();
+        synchronized (seeded) {
+            return seeded.split();
+        }
     }
 
+    /**
+     * Number of solve/count calls spent on the most recent puzzle (from any thread).
+     */
+    public int getLastSolverCalls() { return lastSolverCalls; }
+
+    public Mode getMode() { return mode; }
+
     private void clear(int[][] grid) {
         for (int r = 0; r < 9; r++) for (int c = 0; c < 9; c++) grid[r][c] = 0;
     }
 
-    private void fillDiagonalBlocks(int[][] grid) {
+    private static void fillDiagonalBlocks(int[][] grid, int[] nums, SplittableRandom rnd) {
         for (int block = 0; block < 3; block++) {
-            ArrayList<Integer> nums = new ArrayList<>();
-            for (int i = 1; i <= 9; i++) nums.add(i);
-            Collections.shuffle(nums);
+            for (int i = 0; i < 9; i++) nums[i] = i + 1;
+            shuffle(nums, 0, 9, rnd);
             int br = block * 3;
             int bc = block * 3;
             int idx = 0;
             for (int r = br; r < br + 3; r++) {
                 for (int c = bc; c < bc + 3; c++) {
-                    grid[r][c] = nums.get(idx++);
+                    grid[r][c] = nums[idx++];
                 }
             }
         }
     }
 
-    private void removeRandomCells(int count, int[][] puzzle) {
-        ArrayList<Integer> positions = new ArrayList<>();
-        for (int i = 0; i < 81; i++) positions.add(i);
-        Collections.shuffle(positions);
+    /**
+     * Writes a random equivalent of the seed grid: solution[r][c] = digits[seed[rows[r]][cols[c]]],
+     * optionally transposed. Rows are permuted within bands and bands among themselves (same for columns),
+     * which keeps every row, column and box a permutation of 1-9.
+     */
+    private static void transform(int[] seed, int[][] solution, Scratch sc, SplittableRandom rnd) {
+        int[] digits = sc.digits;
+        for (int i = 0; i < 10; i++) digits[i] = i;
+        shuffle(digits, 1, 9, rnd);
+        lineMap(sc.rows, sc.bands, rnd);
+        lineMap(sc.cols, sc.bands, rnd);
+        boolean transpose = rnd.nextBoolean();
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int cell = transpose ? sc.cols[c] * 9 + sc.rows[r] : sc.rows[r] * 9 + sc.cols[c];
+                solution[r][c] = digits[seed[cell]];
+            }
+        }
+    }
+
+    // map[i] = source line of line i: a shuffled band order, then a shuffle inside each band
+    private static void lineMap(int[] map, int[] bands, SplittableRandom rnd) {
+        for (int i = 0; i < 3; i++) bands[i] = i;
+        shuffle(bands, 0, 3, rnd);
+        for (int band = 0; band < 3; band++) {
+            for (int i = 0; i < 3; i++) map[band * 3 + i] = bands[band] * 3 + i;
+            shuffle(map, band * 3, 3, rnd);
+        }
+    }
+
+    // Fisher-Yates over a[from .. from + n)
+    private static void shuffle(int[] a, int from, int n, SplittableRandom rnd) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = a[from + i];
+            a[from + i] = a[from + j];
+            a[from + j] = t;
+        }
+    }
+
+    // Identity first, so the draw does not depend on what the thread generated before
+    private static void resetPositions(int[] positions) {
+        for (int i = 0; i < 81; i++) positions[i] = i;
+    }
+
+    private void removeRandomCells(int count, int[][] puzzle, int[] positions, SplittableRandom rnd) {
+        resetPositions(positions);
+        // Partial Fisher-Yates: only the first count positions need to be drawn
         for (int i = 0; i < count && i < 81; i++) {
-            int pos = positions.get(i);
+            int j = i + rnd.nextInt(81 - i);
+            int pos = positions[j];
+            positions[j] = positions[i];
+            positions[i] = pos;
             puzzle[pos / 9][pos % 9] = 0;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Blanks up to count cells in random order, undoing any removal that makes the solution ambiguous.
+     * Fewer cells may end up empty when no further removal keeps the puzzle unique.
+     * Returns the number of solution counts performed.
+     */
+    private int removeUniqueCells(int count, int[][] puzzle, boolean symmetric, int[] positions, SplittableRandom rnd) {
+        resetPositions(positions);
+        shuffle(positions, 0, 81, rnd);
+        DancingLinksStrategy counter = this.counter.get();
+        int removed = 0;
+        int calls = 0;
+        for (int i = 0; i < 81 && removed < count; i++) {
+            int pos = positions[i];
+            int mirror = symmetric ? 80 - pos : pos;
+            int r = pos / 9, c = pos % 9, mr = mirror / 9, mc = mirror % 9;
+            if (puzzle[r][c] == 0) continue; // Already blanked as a mirror
+            int blanks = mirror == pos ? 1 : 2;
+            if (removed + blanks > count) continue;
+
+            int value = puzzle[r][c];
+            int mirrorValue = puzzle[mr][mc];
+            puzzle[r][c] = 0;
+            puzzle[mr][mc] = 0;
+            calls++;
+            if (counter.countSolutions(puzzle, 2) == 1) {
+                removed += blanks;
+            } else {
+                puzzle[r][c] = value;
+                puzzle[mr][mc] = mirrorValue;
+            }
+        }
+        return calls;
+    }
+
+    // Per-thread working arrays, reused for every puzzle the thread generates
+    private static final class Scratch {
+        final int[][] puzzle = new int[9][9];
+        final int[][] solution = new int[9][9];
+        final int[] positions = new int[81];
+        final int[] digits = new int[10];
+        final int[] rows = new int[9];
+        final int[] cols = new int[9];
+        final int[] bands = new int[3];
+    }
+}
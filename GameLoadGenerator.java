@@ -0,0 +1,273 @@
+// GameLoadGenerator.java
+// Load generator for GameServer: opens many sessions over a few connections and plays them as fast as
+// the server answers (DSA: per-connection FIFO of send times for pipelined requests, LatencyHistogram).
+// Each connection thread keeps up to --depth batches in flight, round-robin over its sessions, and tracks
+// every board from the FULL snapshots and deltas it receives, so its moves are mostly legal.
+// A batch holds --batch commands: mostly moves into random candidates, plus some undo, redo and hint;
+// a solved board starts a new puzzle, asked for again while the server answers PENDING. A batch answered
+// STATUS_PENDING (session being read back from the store) ran nothing; the session just plays on next round.
+// Reports sessions, batches/s, commands/s and round-trip latency.
+// --embedded starts a GameServer in this JVM on a temporary store, so nothing else needs to run.
+//
+// Usage: java GameLoadGenerator [--host H] [--port N] [--connections N] [--sessions N] [--batch N]
+//                               [--depth N] [--seconds S] [--empty N] [--embedded]
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class GameLoadGenerator {
+    private final InetSocketAddress address;
+    private final int sessionsPerConnection;
+    private final int batch;
+    private final int depth;
+    private final int empty;
+
+    public GameLoadGenerator(InetSocketAddress address, int sessionsPerConnection, int batch, int depth, int empty) {
+        this.address = address;
+        this.sessionsPerConnection = sessionsPerConnection;
+        this.batch = Math.max(1, Math.min(GameProtocol.MAX_COMMANDS, batch));
+        this.depth = Math.max(1, Math.min(sessionsPerConnection, depth));
+        this.empty = empty;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = "localhost";
+        int port = GameServer.DEFAULT_PORT;
+        int connections = 4;
+        int sessions = 1000;
+        int batch = 8;
+        int depth = 32;
+        double seconds = 10;
+        int empty = 45;
+        boolean embedded = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--host") && i + 1 < args.length) host = args[++i];
+            else if (args[i].equals("--port") && i + 1 < args.length) port = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--connections") && i + 1 < args.length) connections = Math.max(1, Integer.parseInt(args[++i]));
+            else if (args[i].equals("--sessions") && i + 1 < args.length) sessions = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--batch") && i + 1 < args.length) batch = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--depth") && i + 1 < args.length) depth = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--seconds") && i + 1 < args.length) seconds = Double.parseDouble(args[++i]);
+            else if (args[i].equals("--empty") && i + 1 < args.length) empty = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--embedded")) embedded = true;
+        }
+        int perConnection = Math.max(1, sessions / connections);
+
+        GameServer server = null;
+        PuzzleStore store = null;
+        ExecutorService generators = null;
+        PuzzleService puzzles = null;
+        if (embedded) {
+            store = PuzzleStore.open(Files.createTempDirectory("sudoku-load"));
+            generators = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            puzzles = new PuzzleService(new GameGenerator(new Solver()), generators, 256);
+            puzzles.setStore(store);
+            puzzles.prefill(empty);
+            server = new GameServer(new InetSocketAddress("localhost", 0), Runtime.getRuntime().availableProcessors(),
+                    puzzles, store, 60_000);
+            server.start();
+            host = "localhost";
+            port = server.getPort();
+        }
+
+        GameLoadGenerator load = new GameLoadGenerator(new InetSocketAddress(host, port), perConnection, batch, depth, empty);
+        Client[] clients = new Client[connections];
+        Thread[] threads = new Thread[connections];
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        for (int c = 0; c < connections; c++) {
+            Client client = clients[c] = load.new Client(c);
+            threads[c] = new Thread(() -> client.run(deadline), "load-" + c);
+            threads[c].start();
+        }
+        for (Thread t : threads) t.join();
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long batches = 0, commands = 0, errors = 0, solved = 0, opened = 0, pending = 0;
+        double elapsed = 0;
+        for (Client client : clients) {
+            if (client.failure != null) System.err.println("connection " + client.index + " failed: " + client.failure);
+            latency.merge(client.latency);
+            batches += client.batches;
+            commands += client.commands;
+            errors += client.errors;
+            solved += client.solved;
+            opened += client.opened;
+            pending += client.pending;
+            elapsed = Math.max(elapsed, client.elapsed);
+        }
+        System.out.printf("sessions=%d connections=%d batch=%d depth=%d elapsed=%.2fs%n",
+                opened, connections, load.batch, load.depth, elapsed);
+        System.out.printf("batches=%d (%.0f/s) commands=%d (%.0f/s) solved=%d pending=%d errors=%d%n",
+                batches, batches / elapsed, commands, commands / elapsed, solved, pending, errors);
+        System.out.println("round trip: " + latency.summary());
+        if (server != null) {
+            System.out.println("server: " + server.summary());
+            server.close();
+            puzzles.shutdown();
+            generators.shutdownNow();
+            store.close();
+        }
+    }
+
+    // One connection and the sessions it plays
+    private final class Client {
+        final int index;
+        final long[] ids = new long[sessionsPerConnection];
+        final int[][] boards = new int[sessionsPerConnection][81]; // Digit | GIVEN_BIT, as sent by the server
+        final boolean[] restart = new boolean[sessionsPerConnection];
+        final int[] scratch = new int[81];
+        final long[] sentAt;
+        final int[] sentSession;
+        final boolean[] sentNew;
+        final SplittableRandom rnd;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final ByteBuffer out = ByteBuffer.allocate(GameProtocol.MAX_REQUEST);
+        final ByteBuffer in = ByteBuffer.allocate(GameProtocol.MAX_RESPONSE * 4);
+        SocketChannel channel;
+        int head, inFlight, seq;
+        long batches, commands, errors, solved, opened, pending;
+        double elapsed;
+        Exception failure;
+
+        Client(int index) {
+            this.index = index;
+            this.sentAt = new long[depth];
+            this.sentSession = new int[depth];
+            this.sentNew = new boolean[depth];
+            this.rnd = new SplittableRandom(index * 0x9E3779B97F4A7C15L + System.nanoTime());
+        }
+
+        void run(long deadline) {
+            try (SocketChannel ch = SocketChannel.open(address)) {
+                channel = ch;
+                ch.socket().setTcpNoDelay(true);
+                long start = System.nanoTime();
+                int next = 0;
+                for (int s = 0; s < ids.length; s++) restart[s] = true; // First batch of every session opens it
+                while (System.nanoTime() < deadline || inFlight > 0) {
+                    if (inFlight < depth && System.nanoTime() < deadline) {
+                        send(next);
+                        next = (next + 1) % ids.length;
+                    } else {
+                        receive();
+                    }
+                }
+                elapsed = (System.nanoTime() - start) / 1e9;
+            } catch (IOException | RuntimeException ex) {
+                failure = ex;
+            }
+        }
+
+        private void send(int s) throws IOException {
+            out.clear();
+            int frame = GameProtocol.beginRequest(out, seq++, ids[s]);
+            boolean fresh = restart[s];
+            if (fresh) { // NEW on its own: the rest of the batch would be planned on the old board
+                GameProtocol.putCommand(out, frame, GameProtocol.NEW, empty, 0);
+                restart[s] = false;
+            }
+            System.arraycopy(boards[s], 0, scratch, 0, 81);
+            for (int n = 0; n < batch && !fresh; n++) {
+                int roll = rnd.nextInt(100);
+                if (roll < 6) {
+                    GameProtocol.putCommand(out, frame, GameProtocol.UNDO, 0, 0);
+                } else if (roll < 8) {
+                    GameProtocol.putCommand(out, frame, GameProtocol.REDO, 0, 0);
+                } else if (roll < 10) {
+                    GameProtocol.putCommand(out, frame, GameProtocol.HINT, 0, 0);
+                } else if (!move(frame)) {
+                    GameProtocol.putCommand(out, frame, GameProtocol.UNDO, 0, 0); // Dead end: back out
+                }
+            }
+            GameProtocol.endFrame(out, frame);
+            out.flip();
+            while (out.hasRemaining()) channel.write(out);
+            int slot = (head + inFlight) % depth;
+            sentAt[slot] = System.nanoTime();
+            sentSession[slot] = s;
+            sentNew[slot] = fresh;
+            inFlight++;
+        }
+
+        // A random candidate in a random empty cell of the scratch board; false if none was found quickly
+        private boolean move(int frame) {
+            for (int tries = 0; tries < 16; tries++) {
+                int cell = rnd.nextInt(81);
+                if (scratch[cell] != 0) continue;
+                int used = 0;
+                for (int peer : ConstraintEngine.PEERS[cell]) {
+                    int v = scratch[peer] & 0xF;
+                    if (v != 0) used |= ConstraintEngine.bit(v);
+                }
+                int cand = ~used & ConstraintEngine.ALL;
+                if (cand == 0) continue;
+                for (int skip = rnd.nextInt(Integer.bitCount(cand)); skip > 0; skip--) cand &= cand - 1;
+                int digit = Integer.numberOfTrailingZeros(cand) + 1;
+                scratch[cell] = digit;
+                GameProtocol.putCommand(out, frame, GameProtocol.MOVE, cell, digit);
+                return true;
+            }
+            return false;
+        }
+
+        private void receive() throws IOException {
+            int length;
+            while ((length = GameProtocol.frameLength(in.flip(), GameProtocol.MIN_RESPONSE, GameProtocol.MAX_RESPONSE)) < 0) {
+                in.compact();
+                if (channel.read(in) < 0) throw new IOException("Server closed the connection");
+            }
+            int next = in.position() + 4 + length;
+            in.position(in.position() + 4);
+            in.getInt(); // seq: responses arrive in request order
+            long id = in.getLong();
+            byte status = in.get();
+            int flags = in.get();
+            int n = in.get() & 0xFF;
+            int s = sentSession[head];
+            boolean fresh = sentNew[head];
+            latency.record(System.nanoTime() - sentAt[head]);
+            head = (head + 1) % depth;
+            inFlight--;
+            batches++;
+            commands += n;
+
+            if (status == GameProtocol.STATUS_PENDING) {
+                pending++;
+                restart[s] = fresh;
+            } else if (status != GameProtocol.STATUS_OK) {
+                errors++;
+                ids[s] = 0;
+                restart[s] = true;
+            } else {
+                if (ids[s] == 0) opened++;
+                ids[s] = id;
+                if (fresh && n > 0 && in.get(in.position()) == GameProtocol.PENDING) {
+                    pending++;
+                    restart[s] = true; // No puzzle ready yet: ask again next round
+                }
+                in.position(in.position() + n * 3);
+                int[] board = boards[s];
+                if ((flags & GameProtocol.FLAG_FULL) != 0) {
+                    for (int i = 0; i < 81; i++) board[i] = in.get();
+                }
+                for (int d = in.getShort(); d > 0; d--) {
+                    int cell = in.get();
+                    board[cell] = in.get();
+                }
+                if ((flags & GameProtocol.FLAG_SOLVED) != 0) {
+                    solved++;
+                    restart[s] = true;
+                }
+            }
+            in.position(next);
+            in.compact();
+        }
+    }
+}
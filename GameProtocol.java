@@ -0,0 +1,88 @@
+// GameProtocol.java
+// Binary wire format shared by GameServer and GameLoadGenerator (DSA: fixed-size records in length-prefixed frames).
+// Every frame is an int length (bytes that follow) and a body; all numbers are big-endian.
+//   Request:  int seq | long session | byte n | n commands of 3 bytes [op, a, b]
+//   Response: int seq | long session | byte status | byte flags | byte n | n results of 3 bytes [result, a, b]
+//             | 81 board bytes if flags has FULL (digit, | GIVEN_BIT for givens)
+//             | short d | d deltas of 2 bytes [cell, value]
+// Session 0 means "no session yet": the batch must start with NEW, and the response carries the new id.
+// The server never generates, searches or touches the disk while answering: a NEW it cannot serve from the
+// ready pool is answered PENDING (the session exists but has no board; moves are rejected until a NEW
+// succeeds), so is a HINT that needs the technique ladder, and a batch for an evicted session answers
+// STATUS_PENDING while the saved game is read back. The client sends the same thing again shortly.
+// Deltas are the net cell changes made by the whole batch, so a client keeps its copy of the board in sync
+// without ever receiving all 81 cells again, unless a new puzzle was loaded or it asked with SYNC.
+
+import java.nio.ByteBuffer;
+
+public final class GameProtocol {
+    public static final int MAX_COMMANDS = 255;
+    public static final int MIN_REQUEST = 4 + 8 + 1;  // Body of a request with no commands
+    public static final int MAX_REQUEST = MIN_REQUEST + MAX_COMMANDS * 3;
+    public static final int MIN_RESPONSE = 4 + 8 + 3 + 2;
+    public static final int MAX_RESPONSE = 4 + 8 + 3 + MAX_COMMANDS * 3 + 81 + 2 + 81 * 2;
+
+    // Commands
+    public static final byte NEW = 1;   // a = empty cells (0: keep the session's difficulty)
+    public static final byte MOVE = 2;  // a = cell, b = digit (0 erases)
+    public static final byte UNDO = 3;
+    public static final byte REDO = 4;
+    public static final byte HINT = 5;  // Result a = cell, b = digit
+    public static final byte SYNC = 6;  // Ask for the full board
+    public static final byte CLOSE = 7; // End the session and drop its saved copy
+
+    // Results per command
+    public static final byte OK = 0;
+    public static final byte REJECTED = 1; // Invalid placement, given cell, no puzzle yet, malformed or after CLOSE
+    public static final byte NOTHING = 2;  // Nothing to undo / redo / hint
+    public static final byte PENDING = 3;  // NEW: no puzzle of that difficulty is ready; HINT: still searching
+
+    // Response status
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NO_SESSION = 1; // Unknown id, or session 0 without a leading NEW
+    public static final byte STATUS_BUSY = 2;       // Session is open on another event loop
+    public static final byte STATUS_BAD_REQUEST = 3;
+    public static final byte STATUS_PENDING = 4;    // Evicted session is being loaded; nothing was run
+
+    // Response flags
+    public static final int FLAG_SOLVED = 1;
+    public static final int FLAG_FULL = 2;
+
+    public static final int GIVEN_BIT = 0x10;
+
+    private GameProtocol() {
+    }
+
+    /**
+     * Starts a request frame in buf; put commands with putCommand, then call endFrame.
+     */
+    public static int beginRequest(ByteBuffer buf, int seq, long session) {
+        int start = buf.position();
+        buf.putInt(0).putInt(seq).putLong(session).put((byte) 0);
+        return start;
+    }
+
+    public static void putCommand(ByteBuffer buf, int frameStart, int op, int a, int b) {
+        int countAt = frameStart + 4 + 4 + 8;
+        buf.put(countAt, (byte) (buf.get(countAt) + 1));
+        buf.put((byte) op).put((byte) a).put((byte) b);
+    }
+
+    /**
+     * Writes the length field of the frame that began at frameStart.
+     */
+    public static void endFrame(ByteBuffer buf, int frameStart) {
+        buf.putInt(frameStart, buf.position() - frameStart - 4);
+    }
+
+    /**
+     * Length of the complete frame at the buffer's position, or -1 if more bytes are needed.
+     * Throws if the announced length is outside [min, max], i.e. the peer is not speaking this protocol.
+     */
+    public static int frameLength(ByteBuffer buf, int min, int max) {
+        if (buf.remaining() < 4) return -1;
+        int length = buf.getInt(buf.position());
+        if (length < min || length > max) throw new IllegalArgumentException("Bad frame length " + length);
+        return buf.remaining() - 4 >= length ? length : -1;
+    }
+}
@@ -0,0 +1,480 @@
+// GameServer.java
+// Headless server hosting many concurrent games over the GameProtocol binary format (DSA: NIO selector
+// event loops, one HashMap of sessions per loop, ConcurrentHashMap ownership table).
+// Each loop owns its connections and every session they open, so a batch runs on one thread with no
+// locks around BoardModel or UndoManager; a session another loop owns is answered with STATUS_BUSY.
+// Loop 0 also accepts connections and deals them out round-robin.
+// Sessions idle for longer than the idle timeout are captured as SavedGames and written to the
+// PuzzleStore by a single saver thread (in order, so a later CLOSE's delete cannot overtake the save);
+// until the write lands the game is served from memory. A batch naming an evicted session resumes it: at once
+// from memory, else the saver reads it back (after any write of the same slot) and the batch is answered
+// STATUS_PENDING meanwhile. Ladder hints run on a small solver pool, so no loop waits on disk or search.
+// close() saves every live session, so a restarted server picks all of them up again.
+//
+// Usage: java GameServer [--port N] [--loops N] [--idle-seconds S] [--store DIR] [--empty N]
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 7777;
+    private static final long TICK_MILLIS = 250; // Eviction scan interval
+
+    private final ServerSocketChannel server;
+    private final Loop[] loops;
+    private final PuzzleService puzzles;
+    private final PuzzleStore store;
+    private final long idleNanos;
+    private final ConcurrentHashMap<Long, Loop> owners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, SavedGame> saving = new ConcurrentHashMap<>(); // Evicted, write pending
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> new Thread(r, "game-saver"));
+    private final ExecutorService solvers;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+
+    public GameServer(InetSocketAddress address, int loopCount, PuzzleService puzzles, PuzzleStore store,
+                      long idleMillis) throws IOException {
+        this.puzzles = puzzles;
+        this.store = store;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        AtomicInteger solverCount = new AtomicInteger();
+        solvers = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 4), r -> {
+            Thread t = new Thread(r, "game-hints-" + solverCount.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        server.configureBlocking(false);
+        loops = new Loop[Math.max(1, loopCount)];
+        for (int i = 0; i < loops.length; i++) loops[i] = new Loop(i);
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = DEFAULT_PORT;
+        int loopCount = Runtime.getRuntime().availableProcessors();
+        long idleSeconds = 60;
+        Path dir = Path.of(System.getProperty("user.home"), ".sudoku-server");
+        int empty = 45;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) port = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--loops") && i + 1 < args.length) loopCount = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--idle-seconds") && i + 1 < args.length) idleSeconds = Long.parseLong(args[++i]);
+            else if (args[i].equals("--store") && i + 1 < args.length) dir = Path.of(args[++i]);
+            else if (args[i].equals("--empty") && i + 1 < args.length) empty = Integer.parseInt(args[++i]);
+        }
+        PuzzleStore store = PuzzleStore.open(dir);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        PuzzleService puzzles = new PuzzleService(new GameGenerator(new Solver()), workers, 256);
+        puzzles.setStore(store);
+        puzzles.prefill(empty);
+        GameServer gameServer = new GameServer(new InetSocketAddress(port), loopCount, puzzles, store, idleSeconds * 1000);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                gameServer.close();
+                puzzles.shutdown();
+                workers.shutdownNow();
+                store.close();
+            } catch (IOException ex) {
+                System.err.println("Shutdown failed: " + ex);
+            }
+        }));
+        gameServer.start();
+        System.out.printf("listening on port %d, %d loops, idle eviction after %ds, store %s%n",
+                port, gameServer.loops.length, idleSeconds, dir);
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println(gameServer.summary());
+        }
+    }
+
+    public void start() {
+        for (Loop loop : loops) {
+            Thread t = new Thread(loop, "game-loop-" + loop.index);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public int getLiveSessions() {
+        return owners.size();
+    }
+
+    public String summary() {
+        return String.format("sessions=%d created=%d evicted=%d resumed=%d batches=%d commands=%d",
+                owners.size(), created.sum(), evicted.sum(), resumed.sum(), batches.sum(), commands.sum());
+    }
+
+    /**
+     * Stops the loops, saves every live session and waits for the saves to reach the store.
+     * The store itself stays open (its owner closes it).
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) return;
+        running = false;
+        for (Loop loop : loops) {
+            loop.selector.wakeup();
+            try {
+                loop.done.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        server.close();
+        solvers.shutdownNow();
+        saver.shutdown();
+        try {
+            saver.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String slot(long id) {
+        return "session-" + Long.toHexString(id);
+    }
+
+    // Hands the game to the saver; it stays resumable from 'saving' until written
+    private void evict(GameSession session) {
+        long id = session.getId();
+        SavedGame game = session.save();
+        saving.put(id, game);
+        owners.remove(id);
+        evicted.increment();
+        saver.execute(() -> {
+            try {
+                store.saveGame(slot(id), game);
+            } catch (IOException ex) {
+                System.err.println("Could not save session " + slot(id) + ": " + ex);
+            }
+            saving.remove(id, game);
+        });
+    }
+
+    private void discard(long id) {
+        saving.remove(id); // Else a batch right after CLOSE could resume it from a save still in flight
+        owners.remove(id);
+        saver.execute(() -> {
+            try {
+                store.deleteSavedGame(slot(id));
+            } catch (IOException ex) {
+                System.err.println("Could not delete session " + slot(id) + ": " + ex);
+            }
+        });
+    }
+
+    private final class Loop implements Runnable {
+        final int index;
+        final Selector selector;
+        final HashMap<Long, GameSession> sessions = new HashMap<>();
+        final ConcurrentLinkedQueue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Loaded> loaded = new ConcurrentLinkedQueue<>(); // Reads back from the saver
+        final HashSet<Long> loading = new HashSet<>();
+        final HashMap<Long, Long> missing = new HashMap<>(); // Not in the store: id -> when found out
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<GameSession> idle = new ArrayList<>();
+        long lastTick = System.nanoTime();
+
+        Loop(int index) throws IOException {
+            this.index = index;
+            this.selector = Selector.open();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(TICK_MILLIS);
+                    for (SocketChannel ch; (ch = pending.poll()) != null; ) register(ch);
+                    for (Loaded l; (l = loaded.poll()) != null; ) resumed(l);
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                    long now = System.nanoTime();
+                    if (now - lastTick >= TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS)) {
+                        lastTick = now;
+                        evictIdle(now);
+                    }
+                }
+            } catch (IOException ex) {
+                System.err.println("Event loop " + index + " failed: " + ex);
+            } finally {
+                for (GameSession session : sessions.values()) evict(session);
+                sessions.clear();
+                for (SelectionKey key : selector.keys()) close(key);
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+                done.countDown();
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            if (!key.isValid()) return;
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            try {
+                Connection conn = (Connection) key.attachment();
+                if (key.isReadable()) conn.read(this);
+                if (key.isValid() && key.isWritable()) conn.flush();
+            } catch (IOException | RuntimeException ex) {
+                close(key); // Peer went away or sent garbage; only this connection pays for it
+            }
+        }
+
+        // A failure drops the one client, never the listening socket
+        private void accept() {
+            while (true) {
+                SocketChannel ch;
+                try {
+                    if ((ch = server.accept()) == null) return;
+                } catch (IOException ex) {
+                    System.err.println("Accept failed: " + ex);
+                    return;
+                }
+                Loop target = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+                if (target == this) {
+                    register(ch);
+                } else {
+                    target.pending.add(ch);
+                    target.selector.wakeup();
+                }
+            }
+        }
+
+        private void register(SocketChannel ch) {
+            try {
+                ch.configureBlocking(false);
+                ch.socket().setTcpNoDelay(true);
+                SelectionKey key = ch.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(key, ch));
+            } catch (IOException ex) {
+                try {
+                    ch.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void close(SelectionKey key) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void evictIdle(long now) {
+            for (GameSession session : sessions.values()) {
+                if (now - session.getLastUsed() > idleNanos) idle.add(session);
+            }
+            for (GameSession session : idle) {
+                sessions.remove(session.getId());
+                evict(session);
+            }
+            idle.clear();
+            // Claims kept for a client that never came back to hear there is no such session
+            Iterator<Map.Entry<Long, Long>> gone = missing.entrySet().iterator();
+            while (gone.hasNext()) {
+                Map.Entry<Long, Long> e = gone.next();
+                if (now - e.getValue() > idleNanos) {
+                    owners.remove(e.getKey(), this);
+                    gone.remove();
+                }
+            }
+        }
+
+        // Executes one request frame (positioned after its length) and appends the response frame
+        void process(ByteBuffer req, ByteBuffer resp) {
+            long now = System.nanoTime();
+            int seq = req.getInt();
+            long id = req.getLong();
+            int n = req.get() & 0xFF;
+            int start = resp.position();
+            resp.putInt(0).putInt(seq);
+            int idAt = resp.position();
+            resp.putLong(id);
+            int statusAt = resp.position();
+            resp.put(GameProtocol.STATUS_OK).put((byte) 0);
+
+            byte status = GameProtocol.STATUS_OK;
+            GameSession session = null;
+            if (n * 3 != req.remaining()) {
+                status = GameProtocol.STATUS_BAD_REQUEST;
+            } else if (id == 0) {
+                if (n > 0 && req.get(req.position()) == GameProtocol.NEW) session = create();
+                else status = GameProtocol.STATUS_NO_SESSION;
+            } else {
+                session = sessions.get(id);
+                if (session == null) {
+                    Loop owner = owners.putIfAbsent(id, this);
+                    if (owner != null && owner != this) status = GameProtocol.STATUS_BUSY;
+                    else if ((session = resume(id, now)) == null) {
+                        status = loading.contains(id) ? GameProtocol.STATUS_PENDING : GameProtocol.STATUS_NO_SESSION;
+                    }
+                }
+            }
+            if (session == null) {
+                resp.put(statusAt, status == GameProtocol.STATUS_OK ? GameProtocol.STATUS_NO_SESSION : status);
+                resp.put((byte) 0).putShort((short) 0);
+            } else {
+                resp.putLong(idAt, session.getId());
+                int flags = session.execute(req, n, resp, puzzles, solvers, now);
+                resp.put(statusAt + 1, (byte) flags);
+                if (session.isClosed()) {
+                    sessions.remove(session.getId());
+                    discard(session.getId());
+                }
+                commands.add(n);
+            }
+            batches.increment();
+            GameProtocol.endFrame(resp, start);
+        }
+
+        private GameSession create() {
+            long id;
+            do {
+                id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+            } while (id == 0 || owners.putIfAbsent(id, this) != null);
+            GameSession session = new GameSession(id);
+            sessions.put(id, session);
+            created.increment();
+            return session;
+        }
+
+        // Claimed in owners already. Null while the saver reads the game back, and once it turned out missing
+        // (the claim is given back then)
+        private GameSession resume(long id, long now) {
+            SavedGame game = saving.get(id);
+            if (game != null) return open(id, game, now);
+            if (missing.remove(id) != null) {
+                owners.remove(id, this);
+                return null;
+            }
+            if (loading.add(id)) {
+                saver.execute(() -> { // Behind any save or delete of the slot still queued
+                    SavedGame stored = null;
+                    try {
+                        stored = store.loadGame(slot(id));
+                    } catch (IOException ex) {
+                        System.err.println("Could not load session " + slot(id) + ": " + ex);
+                    }
+                    loaded.add(new Loaded(id, stored));
+                    selector.wakeup();
+                });
+            }
+            return null;
+        }
+
+        // A read issued by resume has finished; the client's next batch finds the session, or hears it is gone
+        private void resumed(Loaded l) {
+            loading.remove(l.id);
+            if (l.game == null) missing.put(l.id, System.nanoTime());
+            else if (!sessions.containsKey(l.id)) open(l.id, l.game, System.nanoTime());
+        }
+
+        private GameSession open(long id, SavedGame game, long now) {
+            GameSession session = new GameSession(id);
+            session.restore(game, now);
+            sessions.put(id, session);
+            resumed.increment();
+            return session;
+        }
+    }
+
+    private static final class Loaded {
+        final long id;
+        final SavedGame game; // Null if the store has none
+
+        Loaded(long id, SavedGame game) {
+            this.id = id;
+            this.game = game;
+        }
+    }
+
+    // Buffers of one client connection; requests are answered in order
+    private final class Connection {
+        private final SelectionKey key;
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(GameProtocol.MAX_REQUEST * 16);
+        private ByteBuffer out = ByteBuffer.allocate(GameProtocol.MAX_RESPONSE * 16);
+
+        Connection(SelectionKey key, SocketChannel channel) {
+            this.key = key;
+            this.channel = channel;
+        }
+
+        void read(Loop loop) throws IOException {
+            if (channel.read(in) < 0) throw new IOException("Closed by peer");
+            in.flip();
+            int length;
+            int limit = in.limit();
+            while ((length = GameProtocol.frameLength(in, GameProtocol.MIN_REQUEST, GameProtocol.MAX_REQUEST)) >= 0) {
+                if (out.remaining() < GameProtocol.MAX_RESPONSE) grow();
+                int next = in.position() + 4 + length;
+                in.position(in.position() + 4).limit(next); // Frame body only
+                loop.process(in, out);
+                in.limit(limit).position(next);
+            }
+            in.compact();
+            flush();
+        }
+
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            // Stop reading while responses back up, so a client that never reads cannot grow 'out' forever
+            boolean backlog = out.position() > 0;
+            key.interestOps(backlog ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private void grow() {
+            ByteBuffer bigger = ByteBuffer.allocate(out.capacity() * 2);
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+    }
+}
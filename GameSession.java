@@ -0,0 +1,193 @@
+// GameSession.java
+// One game hosted by GameServer: a BoardModel with its UndoManager and HintEngine.
+// A batch of commands runs against the model and the response carries only the net changes
+// (DSA: dirty-cell list with the value each cell had before the batch, fed by CellChangeListener),
+// so a cell changed and changed back within one batch is not sent at all.
+// HINT answers singles from the HintEngine cache; a harder step runs the DifficultyRater ladder on a copy
+// of the board on another thread and is answered PENDING until a later HINT picks the result up.
+// Not thread-safe: a session is only touched by the event loop that owns it.
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+public class GameSession implements CellChangeListener {
+    static final int HISTORY = 512; // Undo entries per session, far below the UI's default to fit thousands
+
+    private final long id;
+    private final BoardModel model = new BoardModel();
+    private final UndoManager undoManager = new UndoManager(HISTORY);
+    private final HintEngine hints = new HintEngine(model);
+    private final int[] dirty = new int[81];      // Cells changed during the current batch
+    private final int[] before = new int[81];     // Their values before it
+    private final boolean[] isDirty = new boolean[81];
+    private int dirtyCount;
+    private boolean full;
+    private boolean closed;
+    private boolean loaded;  // False until a NEW succeeds (or a saved game with a puzzle is restored)
+    private long lastUsed;
+    private long version;    // Bumped on every cell change, so a ladder result for an older board is dropped
+    private Future<Hint> ladder;
+    private long ladderVersion;
+
+    GameSession(long id) {
+        this.id = id;
+        model.addChangeListener(this);
+    }
+
+    public long getId() { return id; }
+    public long getLastUsed() { return lastUsed; }
+    public boolean isClosed() { return closed; }
+
+    public SavedGame save() {
+        return SavedGame.capture(model, undoManager);
+    }
+
+    void restore(SavedGame game, long now) {
+        lastUsed = now;
+        game.restore(model, undoManager);
+        loaded = game.getSolution().get(0) != 0;
+        full = true; // The client may hold nothing, or a stale copy; the next batch clears the dirty cells
+    }
+
+    @Override
+    public void cellChanged(int index, int oldValue, int newValue) {
+        version++;
+        if (isDirty[index]) return;
+        isDirty[index] = true;
+        before[index] = oldValue;
+        dirty[dirtyCount++] = index;
+    }
+
+    /**
+     * Runs n commands from req (positioned at the first) and appends results, board and deltas to resp,
+     * which must be positioned just after the response's flags byte. Returns the flags.
+     */
+    int execute(ByteBuffer req, int n, ByteBuffer resp, PuzzleService puzzles, ExecutorService solvers, long now) {
+        lastUsed = now;
+        resp.put((byte) n);
+        for (int k = 0; k < n; k++) {
+            int op = req.get();
+            int a = req.get() & 0xFF;
+            int b = req.get() & 0xFF;
+            run(op, a, b, resp, puzzles, solvers);
+        }
+        int flags = model.isSolved() ? GameProtocol.FLAG_SOLVED : 0;
+        if (full) {
+            flags |= GameProtocol.FLAG_FULL;
+            for (int i = 0; i < 81; i++) {
+                resp.put((byte) (model.getValue(i) | (model.isGiven(i) ? GameProtocol.GIVEN_BIT : 0)));
+            }
+            resp.putShort((short) 0);
+        } else {
+            int countAt = resp.position();
+            resp.putShort((short) 0);
+            int deltas = 0;
+            for (int k = 0; k < dirtyCount; k++) {
+                int cell = dirty[k];
+                int v = model.getValue(cell);
+                if (v == before[cell]) continue;
+                resp.put((byte) cell).put((byte) v);
+                deltas++;
+            }
+            resp.putShort(countAt, (short) deltas);
+        }
+        for (int k = 0; k < dirtyCount; k++) isDirty[dirty[k]] = false;
+        dirtyCount = 0;
+        full = false;
+        return flags;
+    }
+
+    private void run(int op, int a, int b, ByteBuffer resp, PuzzleService puzzles, ExecutorService solvers) {
+        byte result = GameProtocol.REJECTED;
+        int ra = 0, rb = 0;
+        if (closed || (!loaded && op != GameProtocol.NEW && op != GameProtocol.SYNC && op != GameProtocol.CLOSE)) {
+            op = -1; // Everything after CLOSE, and play on a session still waiting for its puzzle, is rejected
+        }
+        switch (op) {
+            case GameProtocol.NEW:
+                if (a != 0) model.setNumberOfEmptyCells(a);
+                Puzzle puzzle = puzzles.poll(model.getNumberOfEmptyCells()); // Generation stays on the workers
+                if (puzzle == null) {
+                    result = GameProtocol.PENDING;
+                    break;
+                }
+                model.load(puzzle);
+                undoManager.clear();
+                loaded = true;
+                full = true;
+                result = GameProtocol.OK;
+                break;
+            case GameProtocol.MOVE:
+                if (a < 81 && b <= 9 && !model.isGiven(a) && model.placeNumber(a / 9, a % 9, b, undoManager)) {
+                    result = GameProtocol.OK;
+                }
+                ra = a;
+                rb = b;
+                break;
+            case GameProtocol.UNDO:
+                result = undoManager.canUndo() ? GameProtocol.OK : GameProtocol.NOTHING;
+                model.undo(undoManager);
+                break;
+            case GameProtocol.REDO:
+                result = undoManager.canRedo() ? GameProtocol.OK : GameProtocol.NOTHING;
+                model.redo(undoManager);
+                break;
+            case GameProtocol.HINT:
+                Hint hint = hints.quickHint();
+                if (hint == null && model.getFilledCount() < 81) {
+                    hint = ladderHint(solvers);
+                    if (hint == null) {
+                        result = GameProtocol.PENDING;
+                        break;
+                    }
+                }
+                if (hint == null) {
+                    result = GameProtocol.NOTHING;
+                } else {
+                    result = GameProtocol.OK;
+                    ra = hint.getCell();
+                    rb = hint.getValue();
+                }
+                break;
+            case GameProtocol.SYNC:
+                full = true;
+                result = GameProtocol.OK;
+                break;
+            case GameProtocol.CLOSE:
+                closed = true;
+                result = GameProtocol.OK;
+                break;
+            default:
+                break;
+        }
+        resp.put(result).put((byte) ra).put((byte) rb);
+    }
+
+    // The ladder's step once a search on the current board has finished; else starts one and returns null
+    private Hint ladderHint(ExecutorService solvers) {
+        if (ladder != null && ladderVersion == version) {
+            if (!ladder.isDone()) return null;
+            Hint found = null;
+            try {
+                found = ladder.get();
+            } catch (ExecutionException | InterruptedException ex) {
+                // confirm(null) falls back to the solution
+            }
+            ladder = null;
+            return hints.confirm(found);
+        }
+        if (ladder != null) ladder.cancel(true); // Searching a board that has changed since
+        int[][] grid = model.getPuzzleCopy();
+        ladderVersion = version;
+        try {
+            ladder = solvers.submit(() -> new DifficultyRater().nextStep(grid));
+        } catch (RejectedExecutionException ex) {
+            ladder = null;
+            return hints.confirm(null); // Shutting down: answer from the solution rather than never
+        }
+        return null;
+    }
+}
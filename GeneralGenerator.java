@@ -0,0 +1,144 @@
+// GeneralGenerator.java
+// Puzzle generation for any BoardGeometry (16x16, 25x25, ...), mirroring GameGenerator on flat arrays.
+// A solution grid comes from seeding the independent diagonal boxes at random and completing it with
+// a randomized GeneralSolver search under a node budget (restarting if the budget runs out).
+// UNIQUE/SYMMETRIC removals are kept only if a budgeted solution count stays at 1; a count that runs
+// out of budget is treated as ambiguous, so generated puzzles are always unique.
+// Safe to share between threads: all state is per call.
+//
+// Usage: java GeneralGenerator <box> [emptyCells] [--mode random|unique|symmetric] [--count N]
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class GeneralGenerator {
+    private final BoardGeometry geometry;
+    private final GeneralSolver solver;
+    private final GameGenerator.Mode mode;
+
+    public GeneralGenerator(BoardGeometry geometry, GameGenerator.Mode mode) {
+        this.geometry = geometry;
+        this.solver = new GeneralSolver(geometry);
+        this.mode = mode;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java GeneralGenerator <box> [emptyCells] [--mode random|unique|symmetric] [--count N]");
+            System.exit(2);
+        }
+        BoardGeometry geometry = BoardGeometry.of(Integer.parseInt(args[0]));
+        int empty = geometry.getCells() / 2;
+        GameGenerator.Mode mode = GameGenerator.Mode.UNIQUE;
+        int count = 1;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--mode") && i + 1 < args.length) {
+                mode = GameGenerator.Mode.valueOf(args[++i].toUpperCase());
+            } else if (args[i].equals("--count") && i + 1 < args.length) {
+                count = Integer.parseInt(args[++i]);
+            } else {
+                empty = Integer.parseInt(args[i]);
+            }
+        }
+        GeneralGenerator generator = new GeneralGenerator(geometry, mode);
+        LatencyHistogram latency = new LatencyHistogram();
+        for (int i = 0; i < count; i++) {
+            long t0 = System.nanoTime();
+            GeneralPuzzle p = generator.generate(empty);
+            latency.record(System.nanoTime() - t0);
+            System.out.println(p);
+        }
+        System.err.println(geometry.getSide() + "x" + geometry.getSide() + " " + mode + " generate: " + latency.summary());
+    }
+
+    public GeneralPuzzle generate(int numberOfEmptyCells) {
+        return generate(numberOfEmptyCells, ThreadLocalRandom.current());
+    }
+
+    public GeneralPuzzle generate(int numberOfEmptyCells, Random rnd) {
+        int cells = geometry.getCells();
+        int[] solution = new int[cells];
+        int solverCalls = 0;
+        boolean solved;
+        do {
+            Arrays.fill(solution, 0);
+            fillDiagonalBoxes(solution, rnd);
+            solved = solver.solve(solution, rnd, 20L * cells);
+            solverCalls++;
+        } while (!solved);
+        int[] puzzle = solution.clone();
+        if (mode == GameGenerator.Mode.RANDOM) {
+            removeRandomCells(Math.min(numberOfEmptyCells, cells), puzzle, rnd);
+        } else {
+            solverCalls += removeUniqueCells(numberOfEmptyCells, puzzle, mode == GameGenerator.Mode.SYMMETRIC, rnd);
+        }
+        return new GeneralPuzzle(geometry, puzzle, solution, solverCalls);
+    }
+
+    public BoardGeometry getGeometry() { return geometry; }
+
+    // Boxes on the diagonal share no row, column or box, so any shuffle of each is consistent
+    private void fillDiagonalBoxes(int[] grid, Random rnd) {
+        int box = geometry.getBox();
+        int side = geometry.getSide();
+        int[] digits = new int[side];
+        for (int b = 0; b < box; b++) {
+            for (int i = 0; i < side; i++) digits[i] = i + 1;
+            shuffle(digits, rnd);
+            int[] unit = geometry.getUnits()[2 * side + b * box + b];
+            for (int i = 0; i < side; i++) grid[unit[i]] = digits[i];
+        }
+    }
+
+    private void removeRandomCells(int count, int[] puzzle, Random rnd) {
+        int[] positions = positions(rnd);
+        for (int i = 0; i < count; i++) puzzle[positions[i]] = 0;
+    }
+
+    // Same walk as GameGenerator.removeUniqueCells; returns the solution counts performed
+    private int removeUniqueCells(int count, int[] puzzle, boolean symmetric, Random rnd) {
+        int cells = geometry.getCells();
+        long budget = 4L * cells;
+        int[] positions = positions(rnd);
+        int removed = 0;
+        int calls = 0;
+        for (int i = 0; i < cells && removed < count; i++) {
+            int pos = positions[i];
+            int mirror = symmetric ? cells - 1 - pos : pos;
+            if (puzzle[pos] == 0) continue;
+            int blanks = mirror == pos ? 1 : 2;
+            if (removed + blanks > count) continue;
+
+            int value = puzzle[pos];
+            int mirrorValue = puzzle[mirror];
+            puzzle[pos] = 0;
+            puzzle[mirror] = 0;
+            calls++;
+            if (solver.countSolutions(puzzle, 2, budget) == 1) {
+                removed += blanks;
+            } else {
+                puzzle[pos] = value;
+                puzzle[mirror] = mirrorValue;
+            }
+        }
+        return calls;
+    }
+
+    private int[] positions(Random rnd) {
+        int[] positions = new int[geometry.getCells()];
+        for (int i = 0; i < positions.length; i++) positions[i] = i;
+        shuffle(positions, rnd);
+        return positions;
+    }
+
+    // Fisher-Yates on a primitive array (DSA: no boxing)
+    private static void shuffle(int[] a, Random rnd) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+// GeneralPuzzle.java
+// A generated N x N puzzle and its solution as flat arrays (cell = row * N + col, 0 = empty).
+// Treated as immutable once built, like Puzzle.
+
+public class GeneralPuzzle {
+    private static final String DIGITS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz@#";
+
+    private final BoardGeometry geometry;
+    private final int[] puzzle;
+    private final int[] solution;
+    private final int solverCalls;
+
+    public GeneralPuzzle(BoardGeometry geometry, int[] puzzle, int[] solution, int solverCalls) {
+        this.geometry = geometry;
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.solverCalls = solverCalls;
+    }
+
+    public BoardGeometry getGeometry() { return geometry; }
+    public int getSolverCalls() { return solverCalls; }
+
+    public int getNumberOfEmptyCells() {
+        int empty = 0;
+        for (int v : puzzle) if (v == 0) empty++;
+        return empty;
+    }
+
+    public int[] getPuzzleCopy() { return puzzle.clone(); }
+    public int[] getSolutionCopy() { return solution.clone(); }
+
+    // Shared, not copied: callers must not modify
+    int[] getPuzzle() { return puzzle; }
+    int[] getSolution() { return solution; }
+
+    /**
+     * One line of N * N characters: digits 1-9, then letters for 10 and up, '.' for empty cells.
+     */
+    public static String format(int[] grid) {
+        char[] chars = new char[grid.length];
+        for (int i = 0; i < grid.length; i++) chars[i] = grid[i] == 0 ? '.' : DIGITS.charAt(grid[i] - 1);
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return format(puzzle);
+    }
+}
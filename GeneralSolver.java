@@ -0,0 +1,271 @@
+// GeneralSolver.java
+// Propagation + MRV backtracking for any BoardGeometry (DSA: long bitmasks per unit, trail-based undo).
+// Same search as PropagationStrategy, on a flat int[cells] grid: naked and hidden singles are applied
+// to a fixpoint before each branch, and backtracking pops the trail instead of copying the grid.
+// Optional Random branch order (for generating solution grids) and node budget (for bounded checks).
+// Holds per-call state only in a Search object, so one solver can be shared between threads
+// (ParallelSolver runs one Search per fork-join leaf).
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class GeneralSolver {
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    public static final int UNKNOWN = -1; // countSolutions ran out of node budget
+    static final int SOLVED = -1;         // propagateAndPick results
+    static final int CONTRADICTION = -2;
+
+    private final BoardGeometry geometry;
+
+    public GeneralSolver(BoardGeometry geometry) {
+        this.geometry = geometry;
+    }
+
+    /**
+     * Fills the grid in place; returns false (grid unchanged) if it has no solution.
+     */
+    public boolean solve(int[] grid) {
+        return solve(grid, null, UNLIMITED);
+    }
+
+    /**
+     * As solve(grid), trying digits from a random start when rnd is given and giving up
+     * (grid unchanged, false) after maxNodes branch points.
+     */
+    public boolean solve(int[] grid, Random rnd, long maxNodes) {
+        Search search = new Search(grid, rnd, maxNodes, 1, true, null, null);
+        if (!search.load()) return false;
+        search.search();
+        if (search.found == 0) return false;
+        System.arraycopy(search.solution, 0, grid, 0, grid.length);
+        return true;
+    }
+
+    /**
+     * Counts solutions up to limit (DSA: early exit), leaving the grid unchanged.
+     * Returns UNKNOWN if the node budget ran out first.
+     */
+    public int countSolutions(int[] grid, int limit, long maxNodes) {
+        int[] scratch = grid.clone();
+        Search search = new Search(scratch, null, maxNodes, limit, false, null, null);
+        if (!search.load()) return 0;
+        search.search();
+        return search.aborted ? UNKNOWN : (int) search.found;
+    }
+
+    /**
+     * Counts solutions with no node budget, handing each to sink (may be null) and stopping once
+     * the shared total reaches limit. Solutions found here are added to shared as they are found,
+     * so several searches over disjoint subtrees stop together. Returns this search's own count.
+     */
+    long enumerate(int[] grid, long limit, AtomicLong shared, Consumer<int[]> sink) {
+        Search search = new Search(grid.clone(), null, UNLIMITED, limit, false, shared, sink);
+        if (!search.load()) return 0;
+        search.search();
+        return search.found;
+    }
+
+    /**
+     * Applies naked and hidden singles to the grid in place and picks the cell to branch on
+     * (fewest candidates). Returns that cell, SOLVED if the grid is now full, or CONTRADICTION.
+     */
+    int propagateAndPick(int[] grid) {
+        Search search = new Search(grid, null, UNLIMITED, 1, false, null, null);
+        if (!search.load() || !search.propagate()) return CONTRADICTION;
+        return search.pick();
+    }
+
+    /**
+     * Digits that fit the cell given its peers, as a long mask.
+     */
+    long candidates(int[] grid, int cell) {
+        long used = 0;
+        for (int peer : geometry.peers(cell)) {
+            if (grid[peer] != 0) used |= BoardGeometry.bit(grid[peer]);
+        }
+        return ~used & geometry.getAll();
+    }
+
+    public BoardGeometry getGeometry() { return geometry; }
+
+    private final class Search {
+        private final int side = geometry.getSide();
+        private final int cells = geometry.getCells();
+        private final long all = geometry.getAll();
+        private final int[] grid;
+        private final long[] rowMasks = new long[side];
+        private final long[] colMasks = new long[side];
+        private final long[] boxMasks = new long[side];
+        private final int[] trail = new int[cells];
+        private final Random rnd;
+        private final long maxNodes;
+        private final long limit;
+        private final int[] solution;
+        private final AtomicLong shared; // Total across parallel searches, or null
+        private final Consumer<int[]> sink;
+        private int trailSize;
+        private long nodes;
+        private long found;
+        private boolean aborted;
+
+        Search(int[] grid, Random rnd, long maxNodes, long limit, boolean keepSolution,
+               AtomicLong shared, Consumer<int[]> sink) {
+            this.grid = grid;
+            this.rnd = rnd;
+            this.maxNodes = maxNodes;
+            this.limit = limit;
+            this.solution = keepSolution ? new int[cells] : null;
+            this.shared = shared;
+            this.sink = sink;
+        }
+
+        // Builds the unit masks; false if the givens clash
+        boolean load() {
+            for (int cell = 0; cell < cells; cell++) {
+                int v = grid[cell];
+                if (v == 0) continue;
+                if (v < 0 || v > side || (candidates(cell) & BoardGeometry.bit(v)) == 0) return false;
+                mark(cell, v);
+            }
+            return true;
+        }
+
+        // True once the search should stop (limit reached or budget spent)
+        boolean search() {
+            if (++nodes > maxNodes) {
+                aborted = true;
+                return true;
+            }
+            if (shared != null && shared.get() >= limit) return true; // Another search hit the limit
+            int mark = trailSize;
+            if (!propagate()) {
+                undoTo(mark);
+                return false;
+            }
+
+            int best = pick();
+            if (best < 0) { // Grid filled
+                // Claim a slot in the shared total first, so the sink never sees more than limit solutions
+                long total = shared != null ? shared.incrementAndGet() : found + 1;
+                if (total <= limit) {
+                    if (found++ == 0 && solution != null) System.arraycopy(grid, 0, solution, 0, cells);
+                    if (sink != null) sink.accept(grid.clone());
+                }
+                undoTo(mark);
+                return total >= limit;
+            }
+
+            long cand = candidates(best);
+            int start = rnd == null ? 0 : rnd.nextInt(side);
+            for (int k = 0; k < side; k++) {
+                int d = (start + k) % side;
+                if ((cand & (1L << d)) == 0) continue;
+                int branchMark = trailSize;
+                assign(best, d + 1);
+                boolean stop = search();
+                undoTo(branchMark);
+                if (stop) {
+                    undoTo(mark);
+                    return true;
+                }
+            }
+            undoTo(mark);
+            return false;
+        }
+
+        // Minimum remaining values: the empty cell with the fewest candidates, or SOLVED
+        int pick() {
+            int best = SOLVED;
+            int bestCount = side + 1;
+            for (int i = 0; i < cells && bestCount > 2; i++) {
+                if (grid[i] != 0) continue;
+                int count = Long.bitCount(candidates(i));
+                if (count < bestCount) {
+                    best = i;
+                    bestCount = count;
+                }
+            }
+            return best;
+        }
+
+        boolean propagate() {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int i = 0; i < cells; i++) {
+                    if (grid[i] != 0) continue;
+                    long cand = candidates(i);
+                    if (cand == 0) return false;
+                    if ((cand & (cand - 1)) == 0) {
+                        assign(i, Long.numberOfTrailingZeros(cand) + 1);
+                        changed = true;
+                    }
+                }
+                for (int[] unit : geometry.getUnits()) {
+                    long placed = 0, once = 0, twice = 0;
+                    for (int cell : unit) {
+                        int v = grid[cell];
+                        if (v != 0) {
+                            placed |= BoardGeometry.bit(v);
+                        } else {
+                            long cand = candidates(cell);
+                            twice |= once & cand;
+                            once |= cand;
+                        }
+                    }
+                    if ((placed | once) != all) return false;
+                    for (long hidden = once & ~twice & ~placed; hidden != 0; hidden &= hidden - 1) {
+                        long b = hidden & -hidden;
+                        int v = Long.numberOfTrailingZeros(b) + 1;
+                        int target = -1;
+                        for (int cell : unit) {
+                            if (grid[cell] == v) {
+                                target = -2; // Placed by an earlier single this pass
+                                break;
+                            }
+                            if (grid[cell] == 0 && (candidates(cell) & b) != 0) {
+                                target = cell;
+                                break;
+                            }
+                        }
+                        if (target == -1) return false;
+                        if (target >= 0) {
+                            assign(target, v);
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        private long candidates(int cell) {
+            return ~(rowMasks[cell / side] | colMasks[cell % side] | boxMasks[geometry.boxOf(cell)]) & all;
+        }
+
+        private void mark(int cell, int v) {
+            long b = BoardGeometry.bit(v);
+            rowMasks[cell / side] |= b;
+            colMasks[cell % side] |= b;
+            boxMasks[geometry.boxOf(cell)] |= b;
+        }
+
+        private void assign(int cell, int v) {
+            grid[cell] = v;
+            mark(cell, v);
+            trail[trailSize++] = cell;
+        }
+
+        private void undoTo(int mark) {
+            while (trailSize > mark) {
+                int cell = trail[--trailSize];
+                long b = ~BoardGeometry.bit(grid[cell]);
+                rowMasks[cell / side] &= b;
+                colMasks[cell % side] &= b;
+                boxMasks[geometry.boxOf(cell)] &= b;
+                grid[cell] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+// Hint.java
+// One suggested placement: the cell (row * 9 + col), the digit, and the technique that finds it.
+// A null technique means no logical step was found and the value was read from the stored solution.
+
+public class Hint {
+    private final int cell;
+    private final int value;
+    private final Technique technique;
+
+    public Hint(int cell, int value, Technique technique) {
+        this.cell = cell;
+        this.value = value;
+        this.technique = technique;
+    }
+
+    public int getCell() { return cell; }
+    public int getRow() { return cell / 9; }
+    public int getCol() { return cell % 9; }
+    public int getValue() { return value; }
+    public Technique getTechnique() { return technique; }
+
+    public boolean isFromSolution() { return technique == null; }
+
+    @Override
+    public String toString() {
+        return "Hint{r" + (getRow() + 1) + "c" + (getCol() + 1) + "=" + value
+                + ", " + (technique == null ? "solution" : technique) + '}';
+    }
+}
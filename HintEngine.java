@@ -0,0 +1,120 @@
+// HintEngine.java
+// Suggests the next logical placement for the board being played (DSA: cached bitmask candidate grid).
+// The engine listens to BoardModel: each changed cell refreshes the candidates of itself and its 20 peers
+// only, so after placeNumber, undo/redo or load the cache is current without rescanning the board.
+// Singles are read straight from the cache; harder steps run the DifficultyRater ladder until it places a digit.
+// Only when logic finds nothing (or the board holds a wrong entry) is the stored solution consulted.
+// Not thread-safe: call it on the thread that changes the board; run the ladder elsewhere on a copy and confirm().
+
+public class HintEngine implements CellChangeListener {
+    private static final int[][] UNITS = ConstraintEngine.UNITS;
+
+    private final BoardModel board;
+    private final int[] cand = new int[81]; // Candidate mask per cell, 0 once filled
+    private final DifficultyRater rater = new DifficultyRater();
+
+    public HintEngine(BoardModel board) {
+        this.board = board;
+        for (int cell = 0; cell < 81; cell++) refresh(cell);
+        board.addChangeListener(this);
+    }
+
+    @Override
+    public void cellChanged(int index, int oldValue, int newValue) {
+        refresh(index);
+        for (int peer : ConstraintEngine.PEERS[index]) refresh(peer);
+    }
+
+    /**
+     * Cached candidate mask of a cell (bit v - 1 for digit v); 0 for filled cells.
+     */
+    public int getCandidates(int cell) {
+        return cand[cell];
+    }
+
+    /**
+     * Next placement for the current board, or null if the board is full.
+     * Singles come from the cache in O(81); otherwise the full ladder runs on the current grid.
+     */
+    public Hint nextHint() {
+        if (board.getFilledCount() == 81) return null;
+        Hint hint = findSingle();
+        if (hint == null) hint = rater.nextStep(board.getPuzzle());
+        return checked(hint);
+    }
+
+    /**
+     * Cheap part of nextHint: a naked or hidden single from the cache, checked against the solution.
+     * Returns null if the board has no single, so the caller can run nextLogicalStep elsewhere.
+     */
+    public Hint quickHint() {
+        Hint hint = findSingle();
+        return hint == null ? null : checked(hint);
+    }
+
+    /**
+     * Accepts a step computed off-thread (DifficultyRater.nextStep on a grid copy). The step must still be a
+     * candidate and agree with the stored solution: a search started on an older board (or a previous puzzle)
+     * can name a digit that is no longer right. Otherwise, or if it is null, falls back like nextHint does.
+     */
+    public Hint confirm(Hint logical) {
+        if (logical == null) return checked(null);
+        int cell = logical.getCell();
+        if ((cand[cell] & ConstraintEngine.bit(logical.getValue())) == 0
+                || board.getSolution()[cell / 9][cell % 9] != logical.getValue()) {
+            return checked(findSingle());
+        }
+        return logical;
+    }
+
+    /**
+     * Value from the stored solution, used when no logical step applies: a wrong entry is pointed out
+     * first, otherwise the empty cell with the fewest candidates is filled in.
+     */
+    public Hint solutionHint() {
+        int best = -1;
+        for (int cell = 0; cell < 81; cell++) {
+            int v = board.getValue(cell);
+            int answer = board.getSolution()[cell / 9][cell % 9];
+            if (v != 0 && v != answer) return new Hint(cell, answer, null);
+            if (v == 0 && (best < 0 || Integer.bitCount(cand[cell]) < Integer.bitCount(cand[best]))) best = cell;
+        }
+        return best < 0 ? null : new Hint(best, board.getSolution()[best / 9][best % 9], null);
+    }
+
+    // A logical step derived from a wrong entry would mislead the player, so fall back to the solution
+    private Hint checked(Hint hint) {
+        if (hint != null && board.getMismatchCount() == 0) return hint;
+        if (hint != null && board.getSolution()[hint.getRow()][hint.getCol()] == hint.getValue()) return hint;
+        return solutionHint();
+    }
+
+    private Hint findSingle() {
+        for (int cell = 0; cell < 81; cell++) {
+            int m = cand[cell];
+            if (m != 0 && (m & (m - 1)) == 0) {
+                return new Hint(cell, Integer.numberOfTrailingZeros(m) + 1, Technique.NAKED_SINGLE);
+            }
+        }
+        for (int[] unit : UNITS) {
+            int once = 0, twice = 0;
+            for (int cell : unit) {
+                twice |= once & cand[cell];
+                once |= cand[cell];
+            }
+            int hidden = once & ~twice;
+            if (hidden == 0) continue;
+            int b = hidden & -hidden;
+            for (int cell : unit) {
+                if ((cand[cell] & b) != 0) {
+                    return new Hint(cell, Integer.numberOfTrailingZeros(b) + 1, Technique.HIDDEN_SINGLE);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void refresh(int cell) {
+        cand[cell] = board.getCandidates(cell / 9, cell % 9);
+    }
+}
@@ -0,0 +1,95 @@
+// LatencyHistogram.java
+// Log-linear latency histogram (DSA: Array of buckets, 16 sub-buckets per power of two, HDR-style).
+// Recording is O(1) with no allocation; relative error of reported percentiles is at most 1/16.
+// Not thread-safe: give each thread its own and merge() them at the end, or record into a
+// ConcurrentLatencyHistogram and take snapshots of it.
+
+import java.util.Arrays;
+
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16;
+    static final int BUCKETS = (64 - 3) * SUB_BUCKETS;
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sum;
+    private long max;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucketOf(nanos)]++;
+        total++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    // Adds a whole bucket at once (ConcurrentLatencyHistogram snapshots)
+    void add(int bucket, long count, long bucketSum) {
+        if (count == 0) return;
+        counts[bucket] += count;
+        total += count;
+        sum += bucketSum;
+    }
+
+    void setMax(long max) {
+        this.max = Math.max(this.max, max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    public long getCount() { return total; }
+    public long getMax() { return max; }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), capped at the recorded max.
+     */
+    public long getPercentile(double percentile) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, lowerBound(i + 1) - 1);
+        }
+        return max;
+    }
+
+    /**
+     * One-line summary in microseconds, e.g. for CLI output.
+     */
+    public String summary() {
+        return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                total, getMean() / 1e3, getPercentile(50) / 1e3, getPercentile(90) / 1e3,
+                getPercentile(99) / 1e3, getPercentile(99.9) / 1e3, max / 1e3);
+    }
+
+    // Values below 16 get exact buckets; above that, 16 buckets per power of two
+    static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponent - 4)) & (SUB_BUCKETS - 1);
+        return (exponent - 3) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + 3;
+        if (exponent > 62) return Long.MAX_VALUE;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 4);
+    }
+}
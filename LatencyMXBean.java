@@ -0,0 +1,13 @@
+// LatencyMXBean.java
+// JMX view of one Metrics histogram, registered as sudoku:type=Latency,name=<operation>. Times in microseconds.
+
+public interface LatencyMXBean {
+    long getCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+    void reset();
+}
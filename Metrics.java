@@ -0,0 +1,150 @@
+// Metrics.java
+// Process-wide instrumentation, off unless started with -Dsudoku.metrics=true.
+// ENABLED is a static final flag, so every guarded call site (if (Metrics.ENABLED) ...) is removed by the
+// JIT when metrics are off. When on, counters are LongAdders and latencies go to lock-free
+// ConcurrentLatencyHistograms; both are exposed as JMX MXBeans (domain "sudoku") and, with
+// -Dsudoku.metrics.dumpSeconds=N, printed to stderr every N seconds.
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("sudoku.metrics");
+
+    public static final ConcurrentLatencyHistogram SOLVE = new ConcurrentLatencyHistogram();
+    public static final ConcurrentLatencyHistogram GENERATE = new ConcurrentLatencyHistogram();
+    public static final ConcurrentLatencyHistogram VALIDATE = new ConcurrentLatencyHistogram();
+    public static final ConcurrentLatencyHistogram PLACEMENT = new ConcurrentLatencyHistogram();
+    public static final ConcurrentLatencyHistogram RENDER = new ConcurrentLatencyHistogram();
+
+    public static final LongAdder SOLVE_NODES = new LongAdder();
+    public static final LongAdder SOLVE_BACKTRACKS = new LongAdder();
+    public static final LongAdder GENERATE_SOLVER_CALLS = new LongAdder();
+    public static final LongAdder PLACEMENTS_REJECTED = new LongAdder();
+    public static final LongAdder RENDERED_CELLS = new LongAdder();
+
+    private static final String[] NAMES = {"solve", "generate", "validate", "placement", "render"};
+    private static final ConcurrentLatencyHistogram[] HISTOGRAMS = {SOLVE, GENERATE, VALIDATE, PLACEMENT, RENDER};
+    private static volatile UndoManager watchedUndo; // Gauge source for undo/redo depths
+
+    static {
+        if (ENABLED) start();
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Records a solve and its search counters.
+     */
+    public static void solved(long nanos, SolveResult result) {
+        SOLVE.record(nanos);
+        SOLVE_NODES.add(result.getNodes());
+        SOLVE_BACKTRACKS.add(result.getBacktracks());
+    }
+
+    public static void generated(long nanos, int solverCalls) {
+        GENERATE.record(nanos);
+        GENERATE_SOLVER_CALLS.add(solverCalls);
+    }
+
+    public static void placed(long nanos, boolean accepted) {
+        PLACEMENT.record(nanos);
+        if (!accepted) PLACEMENTS_REJECTED.increment();
+    }
+
+    public static void rendered(long nanos, int cells) {
+        RENDER.record(nanos);
+        RENDERED_CELLS.add(cells);
+    }
+
+    /**
+     * Reports this manager's depths through the undo/redo gauges (the game's single history).
+     */
+    public static void watch(UndoManager undoManager) {
+        watchedUndo = undoManager;
+    }
+
+    /**
+     * Multi-line text dump of every histogram and counter.
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder("sudoku metrics\n");
+        for (int i = 0; i < NAMES.length; i++) {
+            sb.append(String.format("  %-9s %s%n", NAMES[i], HISTOGRAMS[i].snapshot().summary()));
+        }
+        Counters c = new Counters();
+        sb.append(String.format("  nodes=%d backtracks=%d generatorSolverCalls=%d rejectedPlacements=%d"
+                        + " renderedCells=%d undoDepth=%d redoDepth=%d%n",
+                c.getSolveNodes(), c.getSolveBacktracks(), c.getGenerateSolverCalls(), c.getPlacementsRejected(),
+                c.getRenderedCells(), c.getUndoDepth(), c.getRedoDepth()));
+        return sb.toString();
+    }
+
+    private static void start() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (int i = 0; i < NAMES.length; i++) {
+                server.registerMBean(new Latency(HISTOGRAMS[i]), new ObjectName("sudoku:type=Latency,name=" + NAMES[i]));
+            }
+            server.registerMBean(new Counters(), new ObjectName("sudoku:type=Counters"));
+        } catch (JMException ex) {
+            System.err.println("Metrics: JMX registration failed: " + ex);
+        }
+        long period = Long.getLong("sudoku.metrics.dumpSeconds", 0);
+        if (period > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "sudoku-metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.print(dump()), period, period, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class Latency implements LatencyMXBean {
+        private final ConcurrentLatencyHistogram histogram;
+
+        Latency(ConcurrentLatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override public long getCount() { return histogram.snapshot().getCount(); }
+        @Override public double getMeanMicros() { return histogram.snapshot().getMean() / 1e3; }
+        @Override public double getP50Micros() { return histogram.snapshot().getPercentile(50) / 1e3; }
+        @Override public double getP90Micros() { return histogram.snapshot().getPercentile(90) / 1e3; }
+        @Override public double getP99Micros() { return histogram.snapshot().getPercentile(99) / 1e3; }
+        @Override public double getP999Micros() { return histogram.snapshot().getPercentile(99.9) / 1e3; }
+        @Override public double getMaxMicros() { return histogram.snapshot().getMax() / 1e3; }
+        @Override public void reset() { histogram.reset(); }
+    }
+
+    private static final class Counters implements CountersMXBean {
+        @Override public long getSolveCalls() { return SOLVE.snapshot().getCount(); }
+        @Override public long getSolveNodes() { return SOLVE_NODES.sum(); }
+        @Override public long getSolveBacktracks() { return SOLVE_BACKTRACKS.sum(); }
+        @Override public long getGenerateCalls() { return GENERATE.snapshot().getCount(); }
+        @Override public long getGenerateSolverCalls() { return GENERATE_SOLVER_CALLS.sum(); }
+        @Override public long getPlacementsAccepted() { return PLACEMENT.snapshot().getCount() - PLACEMENTS_REJECTED.sum(); }
+        @Override public long getPlacementsRejected() { return PLACEMENTS_REJECTED.sum(); }
+        @Override public long getRenderedCells() { return RENDERED_CELLS.sum(); }
+
+        @Override
+        public int getUndoDepth() {
+            UndoManager u = watchedUndo;
+            return u == null ? 0 : u.getUndoDepth();
+        }
+
+        @Override
+        public int getRedoDepth() {
+            UndoManager u = watchedUndo;
+            return u == null ? 0 : u.getRedoDepth();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+// NaiveStrategy.java
+// Original row-major backtracking (DSA: Recursion with pruning), kept for comparison.
+// Tries candidates in ascending order for each empty cell, with no propagation.
+
+public class NaiveStrategy implements SolveStrategy {
+
+    @Override
+    public SolveResult solve(int[][] grid) {
+        Search search = new Search(grid);
+        if (!search.engine.load(grid)) return new SolveResult(false, 0, 0); // Givens already clash
+        boolean solved = search.backtrack(0, 0);
+        return new SolveResult(solved, search.nodes, search.backtracks);
+    }
+
+    // Per-call state so one strategy instance can be shared between threads
+    private static final class Search {
+        private final int[][] grid;
+        private final ConstraintEngine engine = new ConstraintEngine();
+        private long nodes;      // Values placed
+        private long backtracks; // Values undone
+
+        Search(int[][] grid) {
+            this.grid = grid;
+        }
+
+        boolean backtrack(int row, int col) {
+            if (row == 9) return true; // Base case: grid filled
+
+            int nextRow = (col == 8) ? row + 1 : row;
+            int nextCol = (col == 8) ? 0 : col + 1;
+
+            if (grid[row][col] != 0) {
+                return backtrack(nextRow, nextCol);
+            }
+
+            // Iterate set bits of the candidate mask (DSA: lowest set bit first, values ascending)
+            for (int mask = engine.candidates(row, col); mask != 0; mask &= mask - 1) {
+                int val = Integer.numberOfTrailingZeros(mask) + 1;
+                // Place value
+                grid[row][col] = val;
+                engine.place(row, col, val);
+                nodes++;
+
+                if (backtrack(nextRow, nextCol)) return true;
+
+                // Backtrack (undo)
+                grid[row][col] = 0;
+                engine.remove(row, col, val);
+                backtracks++;
+            }
+            return false;
+        }
+    }
+}
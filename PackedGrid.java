@@ -0,0 +1,101 @@
+// PackedGrid.java
+// Compact 9x9 grid (DSA: Bit packing, 4 bits per cell in a long[6] instead of int[9][9]).
+// 81 cells x 4 bits = 324 bits, so one grid is a 64-byte array plus the object header (~80 bytes
+// in total, versus ~500 for int[9][9]). Copy is a single array clone; equals/hashCode compare 6 words.
+// Cells are addressed by index (row * 9 + col); values are 0 (empty) to 9.
+
+import java.util.Arrays;
+
+public final class PackedGrid {
+    private static final int WORDS = 6; // 16 cells per long
+
+    private final long[] words;
+
+    public PackedGrid() {
+        this.words = new long[WORDS];
+    }
+
+    private PackedGrid(long[] words) {
+        this.words = words;
+    }
+
+    public static PackedGrid from(int[][] grid) {
+        PackedGrid packed = new PackedGrid();
+        for (int i = 0; i < 81; i++) packed.set(i, grid[i / 9][i % 9]);
+        return packed;
+    }
+
+    public int get(int index) {
+        return (int) (words[index >>> 4] >>> ((index & 15) << 2)) & 0xF;
+    }
+
+    public int get(int row, int col) {
+        return get(row * 9 + col);
+    }
+
+    public void set(int index, int value) {
+        int shift = (index & 15) << 2;
+        int w = index >>> 4;
+        words[w] = (words[w] & ~(0xFL << shift)) | ((long) value << shift);
+    }
+
+    public void set(int row, int col, int value) {
+        set(row * 9 + col, value);
+    }
+
+    public PackedGrid copy() {
+        return new PackedGrid(words.clone());
+    }
+
+    public void copyFrom(PackedGrid other) {
+        System.arraycopy(other.words, 0, words, 0, WORDS);
+    }
+
+    public void copyTo(int[][] grid) {
+        for (int i = 0; i < 81; i++) grid[i / 9][i % 9] = get(i);
+    }
+
+    public int[][] toArray() {
+        int[][] grid = new int[9][9];
+        copyTo(grid);
+        return grid;
+    }
+
+    public int countFilled() {
+        int filled = 0;
+        for (int i = 0; i < 81; i++) if (get(i) != 0) filled++;
+        return filled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PackedGrid && Arrays.equals(words, ((PackedGrid) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    /**
+     * 64-bit hash of the cells (DSA: multiply-xorshift mix per word), for keys wider than hashCode().
+     */
+    public long hash64() {
+        long h = 0x9E3779B97F4A7C15L;
+        for (long w : words) {
+            h = (h ^ w) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        return h;
+    }
+
+    /**
+     * 81-character line, '0' for empty cells (the bulk puzzle file format).
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[81];
+        for (int i = 0; i < 81; i++) chars[i] = (char) ('0' + get(i));
+        return new String(chars);
+    }
+}
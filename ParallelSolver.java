@@ -0,0 +1,138 @@
+// ParallelSolver.java
+// Parallel counting and enumeration of solutions (DSA: fork-join divide and conquer, work stealing).
+// The search tree is split near the root: each task propagates singles, picks the MRV cell and forks
+// one subtask per candidate until its share of the split budget (initially 16 leaves per worker) runs
+// out, then runs a sequential GeneralSolver search on its subtree. Subtrees are disjoint, so counts
+// simply add up; idle workers steal forked subtasks, which evens out lopsided trees.
+// All leaves share one AtomicLong total, so reaching the solution limit anywhere stops every search.
+//
+// Usage: java ParallelSolver <grid line> [--limit N] [--threads N]
+// The grid line is N * N characters ('.' or '0' for empty; 1-9 then letters above 9), e.g. 81 for 9x9.
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class ParallelSolver {
+    private static final int LEAVES_PER_WORKER = 16;
+
+    private final GeneralSolver solver;
+    private final ForkJoinPool pool;
+
+    public ParallelSolver(BoardGeometry geometry) {
+        this(geometry, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSolver(BoardGeometry geometry, ForkJoinPool pool) {
+        this.solver = new GeneralSolver(geometry);
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java ParallelSolver <grid line> [--limit N] [--threads N]");
+            System.exit(2);
+        }
+        long limit = Long.MAX_VALUE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--limit") && i + 1 < args.length) limit = Long.parseLong(args[++i]);
+            else if (args[i].equals("--threads") && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+        }
+        int[] grid = parse(args[0]);
+        int box = (int) Math.round(Math.sqrt(Math.sqrt(grid.length)));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ParallelSolver parallel = new ParallelSolver(BoardGeometry.of(box), pool);
+            long start = System.nanoTime();
+            long count = parallel.countSolutions(grid, limit);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("solutions=%d%s threads=%d elapsed=%.3fs%n",
+                    count, count >= limit ? " (limit reached)" : "", threads, seconds);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Number of solutions of the grid, stopping early at limit. The grid is left unchanged.
+     */
+    public long countSolutions(int[] grid, long limit) {
+        return enumerate(grid, limit, null);
+    }
+
+    /**
+     * Hands every solution (up to limit) to sink, from worker threads, so sink must be thread-safe.
+     * Returns how many were found.
+     */
+    public long enumerate(int[] grid, long limit, Consumer<int[]> sink) {
+        if (limit <= 0) return 0;
+        AtomicLong total = new AtomicLong();
+        long budget = (long) pool.getParallelism() * LEAVES_PER_WORKER;
+        long found = pool.invoke(new Split(grid.clone(), budget, limit, total, sink));
+        return Math.min(found, limit);
+    }
+
+    /**
+     * 9x9 convenience: counts completions of an int[9][9] grid.
+     */
+    public static long countSolutions(int[][] grid, long limit) {
+        int[] flat = new int[81];
+        for (int i = 0; i < 81; i++) flat[i] = grid[i / 9][i % 9];
+        return new ParallelSolver(BoardGeometry.of(3)).countSolutions(flat, limit);
+    }
+
+    static int[] parse(String line) {
+        int[] grid = new int[line.length()];
+        for (int i = 0; i < grid.length; i++) {
+            char ch = line.charAt(i);
+            if (ch >= '1' && ch <= '9') grid[i] = ch - '0';
+            else if (ch >= 'A' && ch <= 'Z') grid[i] = ch - 'A' + 10;
+            else if (ch >= 'a' && ch <= 'z') grid[i] = ch - 'a' + 36;
+        }
+        return grid;
+    }
+
+    private final class Split extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] grid;
+        private final long budget; // Leaves this subtree may still be split into
+        private final long limit;
+        private final AtomicLong total;
+        private final Consumer<int[]> sink;
+
+        Split(int[] grid, long budget, long limit, AtomicLong total, Consumer<int[]> sink) {
+            this.grid = grid;
+            this.budget = budget;
+            this.limit = limit;
+            this.total = total;
+            this.sink = sink;
+        }
+
+        @Override
+        protected Long compute() {
+            if (total.get() >= limit) return 0L;
+            if (budget <= 1) return solver.enumerate(grid, limit, total, sink);
+
+            int cell = solver.propagateAndPick(grid);
+            if (cell == GeneralSolver.CONTRADICTION) return 0L;
+            if (cell == GeneralSolver.SOLVED) return solver.enumerate(grid, limit, total, sink);
+
+            long cand = solver.candidates(grid, cell);
+            int branches = Long.bitCount(cand);
+            Split[] children = new Split[branches];
+            int k = 0;
+            for (long m = cand; m != 0; m &= m - 1) {
+                int[] child = grid.clone();
+                child[cell] = Long.numberOfTrailingZeros(m) + 1;
+                children[k++] = new Split(child, Math.max(1, budget / branches), limit, total, sink);
+            }
+            invokeAll(children); // Forks all but one, runs that one here, idle workers steal the rest
+            long found = 0;
+            for (Split child : children) found += child.join();
+            return found;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// PlayerLog.java
+// One player's history on a ConcurrentBoard (DSA: single-writer ring buffer of packed ints).
+// Each successful move is one entry: cell (7 bits) | old value (4) | new value (4), as in UndoManager.
+// Only the owning player's thread writes, so appends and pops need no locks or CAS; the size is
+// volatile so other threads (e.g. a stats reader) see complete entries. When full, the oldest move
+// is forgotten. Replaces the single global undo stack: players undo only their own moves.
+
+public class PlayerLog {
+    private final int id;
+    private final int[] ring;
+    private int head;
+    private volatile int size;
+    private long moves;   // Successful moves ever recorded, including ones since undone or forgotten
+    private long undone;
+
+    PlayerLog(int id, int capacity) {
+        this.id = id;
+        this.ring = new int[Math.max(1, capacity)];
+    }
+
+    public int getId() { return id; }
+    public int size() { return size; }
+    public long getMoves() { return moves; }
+    public long getUndone() { return undone; }
+
+    void push(int cell, int oldValue, int newValue) {
+        int n = size;
+        if (n == ring.length) {
+            head = (head + 1) % ring.length;
+            n--;
+        }
+        ring[(head + n) % ring.length] = cell | oldValue << 7 | newValue << 11;
+        size = n + 1;
+        moves++;
+    }
+
+    // Latest entry, or -1 if empty
+    int peek() {
+        int n = size;
+        return n == 0 ? -1 : ring[(head + n - 1) % ring.length];
+    }
+
+    void pop(boolean applied) {
+        size = size - 1;
+        if (applied) undone++;
+    }
+
+    static int cellOf(int entry) { return entry & 0x7F; }
+    static int oldValueOf(int entry) { return (entry >>> 7) & 0xF; }
+    static int newValueOf(int entry) { return (entry >>> 11) & 0xF; }
+}
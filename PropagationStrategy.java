@@ -0,0 +1,138 @@
+// PropagationStrategy.java
+// Constraint propagation + MRV backtracking (DSA: Greedy cell choice, trail-based undo).
+// Before each branch, naked singles and hidden singles are applied until nothing changes.
+// Every placement is pushed on a trail, so backtracking pops to a mark instead of copying the grid.
+
+public class PropagationStrategy implements SolveStrategy {
+
+    @Override
+    public SolveResult solve(int[][] grid) {
+        Search search = new Search(grid);
+        if (!search.engine.load(grid)) return new SolveResult(false, 0, 0); // Givens already clash
+        boolean solved = search.search();
+        return new SolveResult(solved, search.nodes, search.backtracks);
+    }
+
+    // Per-call state so one strategy instance can be shared between threads
+    private static final class Search {
+        private final int[][] grid;
+        private final ConstraintEngine engine = new ConstraintEngine();
+        private final int[] trail = new int[81]; // Cell indices placed, in order
+        private int trailSize;
+        private long nodes;      // Search calls (branch points visited)
+        private long backtracks; // Guesses undone
+
+        Search(int[][] grid) {
+            this.grid = grid;
+        }
+
+        boolean search() {
+            nodes++;
+            int mark = trailSize;
+            if (!propagate()) {
+                undoTo(mark);
+                return false;
+            }
+
+            // Minimum remaining values: branch on the empty cell with the fewest candidates
+            int best = -1;
+            int bestCount = 10;
+            for (int i = 0; i < 81 && bestCount > 2; i++) {
+                if (grid[i / 9][i % 9] != 0) continue;
+                int count = Integer.bitCount(engine.candidates(i / 9, i % 9));
+                if (count < bestCount) {
+                    best = i;
+                    bestCount = count;
+                }
+            }
+            if (best < 0) return true; // Base case: grid filled
+
+            int row = best / 9;
+            int col = best % 9;
+            for (int mask = engine.candidates(row, col); mask != 0; mask &= mask - 1) {
+                int branchMark = trailSize;
+                assign(best, Integer.numberOfTrailingZeros(mask) + 1);
+                if (search()) return true;
+                undoTo(branchMark);
+                backtracks++;
+            }
+            undoTo(mark);
+            return false;
+        }
+
+        // Applies naked and hidden singles to a fixpoint; false on contradiction
+        private boolean propagate() {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+
+                // Naked singles: an empty cell with exactly one candidate
+                for (int i = 0; i < 81; i++) {
+                    if (grid[i / 9][i % 9] != 0) continue;
+                    int cand = engine.candidates(i / 9, i % 9);
+                    if (cand == 0) return false;
+                    if ((cand & (cand - 1)) == 0) {
+                        assign(i, Integer.numberOfTrailingZeros(cand) + 1);
+                        changed = true;
+                    }
+                }
+
+                // Hidden singles: a digit with only one possible cell in a unit
+                for (int[] unit : ConstraintEngine.UNITS) {
+                    int placed = 0;
+                    int once = 0;
+                    int twice = 0;
+                    for (int cell : unit) {
+                        int v = grid[cell / 9][cell % 9];
+                        if (v != 0) {
+                            placed |= ConstraintEngine.bit(v);
+                        } else {
+                            int cand = engine.candidates(cell / 9, cell % 9);
+                            twice |= once & cand;
+                            once |= cand;
+                        }
+                    }
+                    if ((placed | once) != ConstraintEngine.ALL) return false; // Some digit has nowhere to go
+                    for (int hidden = once & ~twice & ~placed; hidden != 0; hidden &= hidden - 1) {
+                        int b = hidden & -hidden;
+                        int v = Integer.numberOfTrailingZeros(b) + 1;
+                        int target = -1;
+                        for (int cell : unit) {
+                            int current = grid[cell / 9][cell % 9];
+                            if (current == v) {
+                                target = -2; // Already placed by an earlier single this pass
+                                break;
+                            }
+                            if (current == 0 && (engine.candidates(cell / 9, cell % 9) & b) != 0) {
+                                target = cell;
+                                break;
+                            }
+                        }
+                        if (target == -1) return false; // Its only cell was filled with another digit
+                        if (target >= 0) {
+                            assign(target, v);
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void assign(int cell, int v) {
+            grid[cell / 9][cell % 9] = v;
+            engine.place(cell / 9, cell % 9, v);
+            trail[trailSize++] = cell;
+        }
+
+        private void undoTo(int mark) {
+            while (trailSize > mark) {
+                int cell = trail[--trailSize];
+                int row = cell / 9;
+                int col = cell % 9;
+                engine.remove(row, col, grid[row][col]);
+                grid[row][col] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+// Puzzle.java
+// A finished puzzle and its solution, produced off the UI thread and handed to a BoardModel.
+// Grids are stored packed (PackedGrid, ~80 bytes each) so large pools stay small.
+// Treated as immutable once built: BoardModel.load copies the grids.
+
+public class Puzzle {
+    private final PackedGrid puzzle;
+    private final PackedGrid solution;
+    private final int numberOfEmptyCells;
+    private final int solverCalls;
+    private final Rating rating; // Null unless generated against a grade band
+
+    public Puzzle(PackedGrid puzzle, PackedGrid solution, int numberOfEmptyCells, int solverCalls) {
+        this(puzzle, solution, numberOfEmptyCells, solverCalls, null);
+    }
+
+    public Puzzle(PackedGrid puzzle, PackedGrid solution, int numberOfEmptyCells, int solverCalls, Rating rating) {
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.numberOfEmptyCells = numberOfEmptyCells;
+        this.solverCalls = solverCalls;
+        this.rating = rating;
+    }
+
+    public int getNumberOfEmptyCells() { return numberOfEmptyCells; }
+    public int getSolverCalls() { return solverCalls; }
+    public Rating getRating() { return rating; }
+
+    // Shared, not copied: callers must not modify
+    PackedGrid getPuzzle() { return puzzle; }
+    PackedGrid getSolution() { return solution; }
+}
@@ -0,0 +1,174 @@
+// PuzzleService.java
+// Background puzzle generation (DSA: Bounded queue per difficulty, filled by a worker pool).
+// Difficulty is the requested number of empty cells, as in BoardModel.
+// take() pops a ready puzzle in O(1) and schedules a refill (poll() too, but it never generates or reads the
+// store inline); generate(n, difficulty) fans a batch out across workers.
+// With a PuzzleStore attached, every puzzle the refill workers generate is persisted, and an empty pool is
+// served from the store instead of generating: by take() on the calling thread, for poll() by the refill.
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PuzzleService {
+    private final GameGenerator generator;
+    private final ExecutorService workers;
+    private final boolean ownsWorkers;
+    private final int poolCapacity;
+    private final ConcurrentHashMap<Integer, Pool> pools = new ConcurrentHashMap<>();
+    private volatile boolean shutdown;
+    private volatile PuzzleStore store;
+
+    public PuzzleService(GameGenerator generator) {
+        this(generator, new ForkJoinPool(), 16, true);
+    }
+
+    public PuzzleService(GameGenerator generator, ExecutorService workers, int poolCapacity) {
+        this(generator, workers, poolCapacity, false);
+    }
+
+    private PuzzleService(GameGenerator generator, ExecutorService workers, int poolCapacity, boolean ownsWorkers) {
+        if (poolCapacity < 1) throw new IllegalArgumentException("poolCapacity must be at least 1");
+        this.generator = generator;
+        this.workers = workers;
+        this.poolCapacity = poolCapacity;
+        this.ownsWorkers = ownsWorkers;
+    }
+
+    public void setStore(PuzzleStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Starts filling the pool for this difficulty in the background.
+     */
+    public void prefill(int numberOfEmptyCells) {
+        scheduleRefill(pool(numberOfEmptyCells));
+    }
+
+    /**
+     * Returns a ready puzzle; if the pool is still empty, a stored one, else one generated on the calling thread.
+     */
+    public Puzzle take(int numberOfEmptyCells) {
+        Pool pool = pool(numberOfEmptyCells);
+        Puzzle p = pool.queue.poll();
+        scheduleRefill(pool);
+        if (p == null) p = fromStore(pool.numberOfEmptyCells);
+        return p != null ? p : generator.generate(pool.numberOfEmptyCells);
+    }
+
+    /**
+     * Like take, but never blocks the calling thread on generation or disk: returns a ready puzzle, or null
+     * once the refill is scheduled, so an event loop can answer "retry" instead of blocking.
+     */
+    public Puzzle poll(int numberOfEmptyCells) {
+        Pool pool = pool(numberOfEmptyCells);
+        Puzzle p = pool.queue.poll();
+        scheduleRefill(pool);
+        return p;
+    }
+
+    /**
+     * Generates n puzzles in parallel on the worker pool, bypassing the ready pools.
+     */
+    public List<Puzzle> generate(int n, int numberOfEmptyCells) throws InterruptedException {
+        int empty = clampEmpty(numberOfEmptyCells);
+        List<Future<Puzzle>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) futures.add(workers.submit(() -> generator.generate(empty)));
+        List<Puzzle> result = new ArrayList<>(n);
+        for (Future<Puzzle> f : futures) {
+            try {
+                result.add(f.get());
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Puzzle generation failed", ex.getCause());
+            }
+        }
+        return result;
+    }
+
+    public int readyCount(int numberOfEmptyCells) {
+        return pool(numberOfEmptyCells).queue.size();
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        if (ownsWorkers) workers.shutdownNow();
+    }
+
+    private Pool pool(int numberOfEmptyCells) {
+        return pools.computeIfAbsent(clampEmpty(numberOfEmptyCells), n -> new Pool(n, poolCapacity));
+    }
+
+    // Same range as BoardModel.setNumberOfEmptyCells
+    private static int clampEmpty(int n) {
+        return Math.max(1, Math.min(81, n));
+    }
+
+    // At most one refill task per pool at a time
+    private void scheduleRefill(Pool pool) {
+        if (shutdown || pool.queue.remainingCapacity() == 0) return;
+        if (!pool.refilling.compareAndSet(false, true)) return;
+        try {
+            workers.execute(() -> refill(pool));
+        } catch (RejectedExecutionException ex) {
+            pool.refilling.set(false);
+        }
+    }
+
+    private void refill(Pool pool) {
+        try {
+            if (pool.queue.isEmpty()) { // Someone may be polling: a stored puzzle is quicker than generating
+                Puzzle stored = fromStore(pool.numberOfEmptyCells);
+                if (stored != null) pool.queue.offer(stored);
+            }
+            while (!shutdown && pool.queue.remainingCapacity() > 0) {
+                Puzzle p = generator.generate(pool.numberOfEmptyCells);
+                persist(p);
+                pool.queue.offer(p);
+            }
+        } finally {
+            pool.refilling.set(false);
+        }
+        // A take() may have raced with the flag reset
+        if (!shutdown && pool.queue.remainingCapacity() > 0) scheduleRefill(pool);
+    }
+
+    private Puzzle fromStore(int numberOfEmptyCells) {
+        PuzzleStore s = store;
+        if (s == null) return null;
+        try {
+            return s.random(numberOfEmptyCells);
+        } catch (IOException ex) {
+            return null; // Fall back to generating
+        }
+    }
+
+    private void persist(Puzzle p) {
+        PuzzleStore s = store;
+        if (s == null) return;
+        try {
+            s.add(p);
+        } catch (IOException ex) {
+            // The pool still gets the puzzle; the store just misses it
+        }
+    }
+
+    private static final class Pool {
+        final int numberOfEmptyCells;
+        final ArrayBlockingQueue<Puzzle> queue;
+        final AtomicBoolean refilling = new AtomicBoolean();
+
+        Pool(int numberOfEmptyCells, int capacity) {
+            this.numberOfEmptyCells = numberOfEmptyCells;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
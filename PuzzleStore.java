@@ -0,0 +1,516 @@
+// PuzzleStore.java
+// Local persistent puzzle library (DSA: append-only record file + memory-mapped indexes).
+// puzzles.dat holds fixed 82-byte records: the difficulty (requested empty cells), then one byte per
+// cell with the puzzle digit in the high nibble and the solution digit in the low nibble.
+// Derived indexes, all memory-mapped:
+//   empty-NN.idx  record numbers of each difficulty in append order, so get(empty, n) is O(1)
+//   hash.idx      open-addressing table from canonical hash (Canonicalizer) to record, so isomorphic
+//                 duplicates are rejected and contains() is O(1) after canonicalization
+// Crash safety: the record file is the source of truth. A record is written before any index, and each
+// index stores how many records it covers, written last. open() drops a torn tail record and replays
+// whatever an index missed, so a crash at any point loses at most the append in progress.
+// Writes reach the OS immediately; sync() (also run by close()) forces them to disk.
+// The in-progress game is kept in savegame.dat, replaced atomically on every save; named games
+// (GameServer sessions) live the same way in games/NAME.dat.
+// The record and index methods are synchronized, so the UI and PuzzleService workers can share one store.
+// Saved games touch no shared state and take no lock: a save's fsync never holds up a lookup.
+// Records go through RandomAccessFile and interrupts are held off during each call: an interrupted
+// FileChannel operation closes the channel, and cancelled background tasks do interrupt their threads.
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public class PuzzleStore implements Closeable {
+    static final int RECORD_SIZE = 82;
+    private static final int DATA_MAGIC = 0x53444B50;  // "SDKP"
+    private static final int LIST_MAGIC = 0x53444B4C;  // "SDKL"
+    private static final int HASH_MAGIC = 0x53444B48;  // "SDKH"
+    private static final int SAVE_MAGIC = 0x53444B47;  // "SDKG"
+    private static final int VERSION = 1;
+    private static final int DATA_HEADER = 16;
+
+    private final Path dir;
+    private final RandomAccessFile data;
+    private final IntList[] byEmpty = new IntList[82]; // Opened lazily, index = empty cells
+    private final HashIndex byHash;
+    private final Canonicalizer canonicalizer = new Canonicalizer();
+    private final byte[] record = new byte[RECORD_SIZE];
+    private final Random rng = new Random();
+    private long records;
+
+    private PuzzleStore(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        data = new RandomAccessFile(dir.resolve("puzzles.dat").toFile(), "rw");
+        if (data.length() < DATA_HEADER) {
+            data.setLength(0);
+            data.writeInt(DATA_MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(RECORD_SIZE);
+            data.writeInt(0);
+        } else {
+            data.seek(0);
+            int magic = data.readInt();
+            data.readInt();
+            if (magic != DATA_MAGIC || data.readInt() != RECORD_SIZE) {
+                data.close();
+                throw new IOException("Not a puzzle store: " + dir.resolve("puzzles.dat"));
+            }
+        }
+        records = recover();
+        byHash = new HashIndex(dir.resolve("hash.idx"));
+        for (int empty = 1; empty <= 81; empty++) {
+            if (Files.exists(listPath(empty))) catchUp(list(empty), empty);
+        }
+        catchUp(byHash);
+    }
+
+    public static PuzzleStore open(Path dir) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            return new PuzzleStore(dir);
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Appends the puzzle unless the store already has it or a symmetric copy of it.
+     * Returns false for such duplicates.
+     */
+    public synchronized boolean add(Puzzle p) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            return append(p);
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean append(Puzzle p) throws IOException {
+        int[][] grid = p.getPuzzle().toArray();
+        CanonicalForm form = canonicalizer.canonicalize(grid);
+        if (find(form) >= 0) return false;
+        int empty = clampEmpty(p.getNumberOfEmptyCells());
+        encode(p.getPuzzle(), p.getSolution(), empty);
+        data.seek(DATA_HEADER + records * RECORD_SIZE);
+        data.write(record);
+        long rec = records++;
+        IntList list = list(empty);
+        list.add((int) rec, records);
+        byHash.put(form.getHash(), (int) rec, records);
+        return true;
+    }
+
+    public synchronized long size() { return records; }
+
+    public synchronized int count(int numberOfEmptyCells) throws IOException {
+        boolean interrupted = Thread.interrupted(); // list() may open and map the index
+        try {
+            return countOf(clampEmpty(numberOfEmptyCells));
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The nth stored puzzle of this difficulty (in insertion order), read with one positioned read.
+     */
+    public synchronized Puzzle get(int numberOfEmptyCells, int n) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            return nth(clampEmpty(numberOfEmptyCells), n);
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A uniformly random stored puzzle of this difficulty, or null if there is none.
+     */
+    public synchronized Puzzle random(int numberOfEmptyCells) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            int empty = clampEmpty(numberOfEmptyCells);
+            int count = countOf(empty);
+            return count == 0 ? null : nth(empty, rng.nextInt(count));
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private int countOf(int empty) throws IOException {
+        return byEmpty[empty] == null && !Files.exists(listPath(empty)) ? 0 : list(empty).size();
+    }
+
+    private Puzzle nth(int empty, int n) throws IOException {
+        int count = countOf(empty);
+        if (n < 0 || n >= count) throw new IndexOutOfBoundsException(n + " of " + count);
+        return read(list(empty).get(n));
+    }
+
+    /**
+     * True if the grid or any symmetric copy of it is stored.
+     */
+    public synchronized boolean contains(int[][] grid) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            return find(canonicalizer.canonicalize(grid)) >= 0;
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the game in progress (board, givens, solution and undo history) to savegame.dat.
+     * The file is written beside the old one and moved over it, so a crash keeps one of the two.
+     */
+    public void saveGame(SavedGame game) throws IOException {
+        writeGame(dir.resolve("savegame.dat"), game);
+    }
+
+    /**
+     * Saves a game under a name (e.g. a GameServer session), in games/NAME.dat, the same way as saveGame.
+     * Saves of the same name from several threads land in some order; callers that care serialize them.
+     */
+    public void saveGame(String slot, SavedGame game) throws IOException {
+        Files.createDirectories(dir.resolve("games"));
+        writeGame(slotPath(slot), game);
+    }
+
+    /**
+     * The last saved game, or null if there is none (or it is unreadable).
+     */
+    public SavedGame loadGame() throws IOException {
+        return readGame(dir.resolve("savegame.dat"));
+    }
+
+    /**
+     * The game saved under this name, or null if there is none (or it is unreadable).
+     */
+    public SavedGame loadGame(String slot) throws IOException {
+        return readGame(slotPath(slot));
+    }
+
+    public void deleteSavedGame() throws IOException {
+        Files.deleteIfExists(dir.resolve("savegame.dat"));
+    }
+
+    public void deleteSavedGame(String slot) throws IOException {
+        Files.deleteIfExists(slotPath(slot));
+    }
+
+    public synchronized void sync() throws IOException {
+        data.getFD().sync();
+        byHash.force();
+        for (IntList list : byEmpty) if (list != null) list.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        data.close();
+        byHash.close();
+        for (IntList list : byEmpty) if (list != null) list.close();
+    }
+
+    // Drops a partial or torn tail record; returns the number of whole, valid records
+    private long recover() throws IOException {
+        long n = (data.length() - DATA_HEADER) / RECORD_SIZE;
+        while (n > 0 && !readRecord(n - 1)) n--;
+        data.setLength(DATA_HEADER + n * RECORD_SIZE);
+        return n;
+    }
+
+    // Replays records the index has not seen (an append interrupted between the record and the index)
+    private void catchUp(IntList list, int empty) throws IOException {
+        list.truncateFrom(records);
+        for (long rec = list.covered(); rec < records; rec++) {
+            readRecord(rec);
+            if ((record[0] & 0xFF) == empty) list.add((int) rec, rec + 1);
+        }
+        list.setCovered(records);
+    }
+
+    private void catchUp(HashIndex index) throws IOException {
+        int[][] grid = new int[9][9];
+        for (long rec = index.covered(); rec < records; rec++) {
+            readRecord(rec);
+            for (int i = 0; i < 81; i++) grid[i / 9][i % 9] = (record[1 + i] & 0xFF) >>> 4;
+            index.put(canonicalizer.canonicalize(grid).getHash(), (int) rec, rec + 1);
+            int empty = record[0] & 0xFF;
+            if (byEmpty[empty] == null && !Files.exists(listPath(empty))) catchUp(list(empty), empty);
+        }
+        index.setCovered(records);
+    }
+
+    // Record number holding this canonical form, or -1; the 64-bit hash is confirmed against the record
+    private long find(CanonicalForm form) throws IOException {
+        int[][] grid = new int[9][9];
+        for (int rec = byHash.first(form.getHash()); rec >= 0; rec = byHash.next(form.getHash(), rec)) {
+            readRecord(rec);
+            for (int i = 0; i < 81; i++) grid[i / 9][i % 9] = (record[1 + i] & 0xFF) >>> 4;
+            if (canonicalizer.canonicalize(grid).getGrid().equals(form.getGrid())) return rec;
+        }
+        return -1;
+    }
+
+    private Puzzle read(long rec) throws IOException {
+        if (!readRecord(rec)) throw new IOException("Corrupt record " + rec);
+        PackedGrid puzzle = new PackedGrid();
+        PackedGrid solution = new PackedGrid();
+        for (int i = 0; i < 81; i++) {
+            int b = record[1 + i] & 0xFF;
+            puzzle.set(i, b >>> 4);
+            solution.set(i, b & 0xF);
+        }
+        return new Puzzle(puzzle, solution, record[0] & 0xFF, 0);
+    }
+
+    // Reads a record into the buffer; false if it is torn (bad difficulty, or givens off the solution)
+    private boolean readRecord(long rec) throws IOException {
+        data.seek(DATA_HEADER + rec * RECORD_SIZE);
+        data.readFully(record);
+        int empty = record[0] & 0xFF;
+        if (empty < 1 || empty > 81) return false;
+        for (int i = 0; i < 81; i++) {
+            int b = record[1 + i] & 0xFF;
+            int given = b >>> 4, answer = b & 0xF;
+            if (answer < 1 || answer > 9 || (given != 0 && given != answer)) return false;
+        }
+        return true;
+    }
+
+    private void encode(PackedGrid puzzle, PackedGrid solution, int empty) {
+        record[0] = (byte) empty;
+        for (int i = 0; i < 81; i++) record[1 + i] = (byte) (puzzle.get(i) << 4 | solution.get(i));
+    }
+
+    private Path slotPath(String slot) {
+        if (!slot.matches("[A-Za-z0-9_-]+")) throw new IllegalArgumentException("Bad save slot: " + slot);
+        return dir.resolve("games").resolve(slot + ".dat");
+    }
+
+    private static void writeGame(Path path, SavedGame game) throws IOException {
+        int[] history = game.getHistory();
+        ByteBuffer buf = ByteBuffer.allocate(16 + 2 * 8 + 81 + 4 + 4 * history.length);
+        buf.putInt(SAVE_MAGIC).putInt(VERSION).putInt(game.getNumberOfEmptyCells()).putInt(history.length);
+        buf.putLong(game.getGivensLow()).putLong(game.getGivensHigh());
+        for (int i = 0; i < 81; i++) buf.put((byte) (game.getBoard().get(i) << 4 | game.getSolution().get(i)));
+        buf.putInt(game.getUndoEntries());
+        for (int entry : history) buf.putInt(entry);
+        buf.flip();
+        Path tmp = Files.createTempFile(path.getParent(), path.getFileName() + ".", ".tmp"); // Own file per writer
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buf.hasRemaining()) out.write(buf);
+                out.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static SavedGame readGame(Path path) throws IOException {
+        if (!Files.exists(path)) return null;
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buf.remaining() < 16 + 16 + 81 + 4 || buf.getInt() != SAVE_MAGIC || buf.getInt() != VERSION) return null;
+        int empty = buf.getInt();
+        int length = buf.getInt();
+        long givensLow = buf.getLong();
+        long givensHigh = buf.getLong();
+        PackedGrid board = new PackedGrid();
+        PackedGrid solution = new PackedGrid();
+        for (int i = 0; i < 81; i++) {
+            int b = buf.get() & 0xFF;
+            board.set(i, b >>> 4);
+            solution.set(i, b & 0xF);
+        }
+        int undoEntries = buf.getInt();
+        if (length < 0 || buf.remaining() != 4L * length) return null;
+        int[] history = new int[length];
+        for (int i = 0; i < length; i++) history[i] = buf.getInt();
+        return new SavedGame(board, solution, givensLow, givensHigh, empty, history, undoEntries);
+    }
+
+    private IntList list(int empty) throws IOException {
+        if (byEmpty[empty] == null) byEmpty[empty] = new IntList(listPath(empty));
+        return byEmpty[empty];
+    }
+
+    private Path listPath(int empty) {
+        return dir.resolve(String.format("empty-%02d.idx", empty));
+    }
+
+    private static int clampEmpty(int n) {
+        return Math.max(1, Math.min(81, n));
+    }
+
+    // Growable int array in a mapped file. Header: magic, entry count, records covered (long)
+    private static final class IntList implements Closeable {
+        private static final int HEADER = 16;
+        private final FileChannel channel;
+        private MappedByteBuffer map;
+
+        IntList(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean fresh = channel.size() < HEADER;
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), HEADER + 4 * 1024));
+            if (fresh || map.getInt(0) != LIST_MAGIC) {
+                map.putInt(0, LIST_MAGIC).putInt(4, 0).putLong(8, 0);
+            }
+        }
+
+        int size() { return map.getInt(4); }
+        long covered() { return map.getLong(8); }
+        void setCovered(long records) { map.putLong(8, records); }
+        int get(int n) { return map.getInt(HEADER + 4 * n); }
+
+        // Entry first, then the count, then coverage: a crash in between is undone by truncateFrom
+        void add(int rec, long covered) throws IOException {
+            int n = size();
+            if (HEADER + 4L * (n + 1) > map.capacity()) {
+                map.force();
+                map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + 8L * Math.max(n, 1024));
+            }
+            map.putInt(HEADER + 4 * n, rec);
+            map.putInt(4, n + 1);
+            setCovered(covered);
+        }
+
+        // Drops entries at or past the covered count (written just before a crash)
+        void truncateFrom(long records) {
+            int n = size();
+            long limit = Math.min(records, covered());
+            while (n > 0 && get(n - 1) >= limit) n--;
+            map.putInt(4, n);
+            setCovered(limit);
+        }
+
+        void force() { map.force(); }
+
+        @Override
+        public void close() throws IOException { channel.close(); }
+    }
+
+    // Open-addressing hash table (DSA: linear probing) in a mapped file, grown by rehashing at half load.
+    // Header: magic, capacity, used, pad, records covered (long). Slot: hash (long, 0 = empty), record (int).
+    private static final class HashIndex implements Closeable {
+        private static final int HEADER = 24;
+        private static final int SLOT = 12;
+        private final FileChannel channel;
+        private MappedByteBuffer map;
+        private int capacity;
+
+        HashIndex(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() >= HEADER) {
+                map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                capacity = map.getInt(4);
+                if (map.getInt(0) == HASH_MAGIC && Integer.bitCount(capacity) == 1
+                        && HEADER + (long) SLOT * capacity <= channel.size()) {
+                    return;
+                }
+            }
+            reset(1024, 0);
+        }
+
+        long covered() { return map.getLong(16); }
+        void setCovered(long records) { map.putLong(16, records); }
+
+        int first(long hash) {
+            hash = key(hash);
+            return probe(hash, slotOf(hash));
+        }
+
+        // Next record with the same hash after 'rec' (hash collisions between different classes)
+        int next(long hash, int rec) {
+            hash = key(hash);
+            int slot = slotOf(hash);
+            while (map.getLong(offset(slot)) != 0 && map.getInt(offset(slot) + 8) != rec) slot = (slot + 1) & (capacity - 1);
+            return probe(hash, (slot + 1) & (capacity - 1));
+        }
+
+        void put(long hash, int rec, long covered) throws IOException {
+            hash = key(hash);
+            int slot = slotOf(hash);
+            while (map.getLong(offset(slot)) != 0) {
+                if (map.getLong(offset(slot)) == hash && map.getInt(offset(slot) + 8) == rec) { // Replayed
+                    setCovered(covered);
+                    return;
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+            map.putInt(offset(slot) + 8, rec);
+            map.putLong(offset(slot), hash);
+            int used = map.getInt(8) + 1;
+            map.putInt(8, used);
+            setCovered(covered);
+            if (used * 2 > capacity) grow();
+        }
+
+        private int probe(long hash, int slot) {
+            for (long h; (h = map.getLong(offset(slot))) != 0; slot = (slot + 1) & (capacity - 1)) {
+                if (h == hash) return map.getInt(offset(slot) + 8);
+            }
+            return -1;
+        }
+
+        private void grow() throws IOException {
+            int oldCapacity = capacity;
+            long[] hashes = new long[map.getInt(8)];
+            int[] recs = new int[hashes.length];
+            int n = 0;
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                long h = map.getLong(offset(slot));
+                if (h != 0) {
+                    hashes[n] = h;
+                    recs[n++] = map.getInt(offset(slot) + 8);
+                }
+            }
+            long covered = covered();
+            reset(oldCapacity * 2, 0); // A crash mid-rebuild leaves covered = 0, so open() replays everything
+            for (int i = 0; i < n; i++) put(hashes[i], recs[i], 0);
+            setCovered(covered);
+        }
+
+        // Maps the larger table over the old one and clears it, never truncating: some platforms (Windows)
+        // refuse to truncate a file that is still mapped. Fields change only once the new map exists.
+        private void reset(int newCapacity, long covered) throws IOException {
+            int size = HEADER + SLOT * newCapacity; // A multiple of 8 (capacity is a power of two)
+            MappedByteBuffer fresh = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            for (int i = 0; i < size; i += 8) fresh.putLong(i, 0);
+            fresh.putInt(0, HASH_MAGIC).putInt(4, newCapacity).putInt(8, 0).putInt(12, 0).putLong(16, covered);
+            map = fresh;
+            capacity = newCapacity;
+        }
+
+        // 0 marks an empty slot
+        private static long key(long hash) {
+            return hash == 0 ? 1 : hash;
+        }
+
+        private int slotOf(long hash) {
+            return (int) (hash ^ hash >>> 32) & (capacity - 1);
+        }
+
+        private static int offset(int slot) {
+            return HEADER + slot * SLOT;
+        }
+
+        void force() { map.force(); }
+
+        @Override
+        public void close() throws IOException { channel.close(); }
+    }
+}
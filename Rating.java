@@ -0,0 +1,44 @@
+// Rating.java
+// Result of DifficultyRater: how often each technique was needed and the resulting grade.
+// The grade is the weight of the hardest technique used, or UNRESOLVED_GRADE if logic alone got stuck.
+
+public class Rating {
+    public static final double UNRESOLVED_GRADE = 10.0;
+
+    private final boolean solved;
+    private final int[] counts; // Indexed by Technique.ordinal()
+
+    public Rating(boolean solved, int[] counts) {
+        this.solved = solved;
+        this.counts = counts;
+    }
+
+    /**
+     * True if the techniques ladder filled every cell without guessing.
+     */
+    public boolean isSolved() { return solved; }
+
+    public int getCount(Technique t) { return counts[t.ordinal()]; }
+
+    public Technique getHardest() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) return Technique.values()[i];
+        }
+        return null;
+    }
+
+    public double getGrade() {
+        if (!solved) return UNRESOLVED_GRADE;
+        Technique hardest = getHardest();
+        return hardest == null ? 0 : hardest.getWeight();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Rating{grade=").append(getGrade()).append(", solved=").append(solved);
+        for (Technique t : Technique.values()) {
+            if (counts[t.ordinal()] > 0) sb.append(", ").append(t).append('=').append(counts[t.ordinal()]);
+        }
+        return sb.append('}').toString();
+    }
+}
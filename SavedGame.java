@@ -0,0 +1,60 @@
+// SavedGame.java
+// Snapshot of a game in progress for PuzzleStore: current board, solution, which cells were givens
+// (81-bit mask split over two longs) and the undo/redo history as exported by UndoManager.
+
+public class SavedGame {
+    private final PackedGrid board;
+    private final PackedGrid solution;
+    private final long givensLow;  // Cells 0-63
+    private final long givensHigh; // Cells 64-80
+    private final int numberOfEmptyCells;
+    private final int[] history;
+    private final int undoEntries;
+
+    public SavedGame(PackedGrid board, PackedGrid solution, long givensLow, long givensHigh,
+                     int numberOfEmptyCells, int[] history, int undoEntries) {
+        this.board = board;
+        this.solution = solution;
+        this.givensLow = givensLow;
+        this.givensHigh = givensHigh;
+        this.numberOfEmptyCells = numberOfEmptyCells;
+        this.history = history;
+        this.undoEntries = undoEntries;
+    }
+
+    public static SavedGame capture(BoardModel model, UndoManager undoManager) {
+        long low = 0, high = 0;
+        for (int i = 0; i < 81; i++) {
+            if (!model.isGiven(i)) continue;
+            if (i < 64) low |= 1L << i;
+            else high |= 1L << (i - 64);
+        }
+        return new SavedGame(model.snapshot(), PackedGrid.from(model.getSolution()), low, high,
+                model.getNumberOfEmptyCells(), undoManager.exportHistory(), undoManager.getUndoEntries());
+    }
+
+    /**
+     * Puts the game back on the board and its history back in the undo manager.
+     */
+    public void restore(BoardModel model, UndoManager undoManager) {
+        PackedGrid givens = new PackedGrid();
+        for (int i = 0; i < 81; i++) {
+            if (isGiven(i)) givens.set(i, board.get(i));
+        }
+        model.setNumberOfEmptyCells(numberOfEmptyCells);
+        model.resume(new Puzzle(givens, solution, numberOfEmptyCells, 0), board);
+        undoManager.importHistory(history, undoEntries);
+    }
+
+    public boolean isGiven(int index) {
+        return index < 64 ? (givensLow >>> index & 1) != 0 : (givensHigh >>> (index - 64) & 1) != 0;
+    }
+
+    public PackedGrid getBoard() { return board; }
+    public PackedGrid getSolution() { return solution; }
+    public long getGivensLow() { return givensLow; }
+    public long getGivensHigh() { return givensHigh; }
+    public int getNumberOfEmptyCells() { return numberOfEmptyCells; }
+    public int[] getHistory() { return history; }
+    public int getUndoEntries() { return undoEntries; }
+}
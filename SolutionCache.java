@@ -0,0 +1,77 @@
+// SolutionCache.java
+// Bounded LRU map from canonical puzzle to canonical solution (DSA: LinkedHashMap in access order).
+// Keys are canonical forms, so every relabelled, permuted or transposed copy of a puzzle shares one
+// entry; the map hashes the packed grid and equals() compares all 81 cells, so a hash collision can
+// never return the wrong solution. Unsolvable puzzles are cached too. Thread-safe: one instance can
+// sit behind every worker's CachingStrategy.
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SolutionCache {
+    public static final int DEFAULT_CAPACITY = 100_000;
+    // Per entry: two PackedGrids (~80 bytes each) plus the LinkedHashMap entry (~40 bytes)
+    static final int BYTES_PER_ENTRY = 200;
+    static final PackedGrid UNSOLVABLE = new PackedGrid(); // Marker value, compared by identity
+
+    private final int capacity;
+    private final LinkedHashMap<PackedGrid, PackedGrid> map;
+    private long hits, misses, evictions;
+
+    public SolutionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SolutionCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PackedGrid, PackedGrid> eldest) {
+                if (size() <= SolutionCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Canonical solution, UNSOLVABLE, or null on a miss.
+     */
+    synchronized PackedGrid get(PackedGrid canonicalPuzzle) {
+        PackedGrid solution = map.get(canonicalPuzzle);
+        if (solution == null) misses++;
+        else hits++;
+        return solution;
+    }
+
+    synchronized void put(PackedGrid canonicalPuzzle, PackedGrid canonicalSolution) {
+        map.put(canonicalPuzzle, canonicalSolution);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() { return map.size(); }
+    public int getCapacity() { return capacity; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Rough heap footprint of the cached entries, in bytes.
+     */
+    public synchronized long getEstimatedBytes() {
+        return (long) map.size() * BYTES_PER_ENTRY;
+    }
+
+    public synchronized String summary() {
+        return String.format("size=%d/%d hits=%d misses=%d hitRate=%.1f%% evictions=%d memory~%dKB",
+                map.size(), capacity, hits, misses, getHitRate() * 100, evictions, getEstimatedBytes() / 1024);
+    }
+}
@@ -0,0 +1,23 @@
+// SolveResult.java
+// Outcome of one solve plus search counters, so strategies can be compared on the same grid.
+
+public class SolveResult {
+    private final boolean solved;
+    private final long nodes;
+    private final long backtracks;
+
+    public SolveResult(boolean solved, long nodes, long backtracks) {
+        this.solved = solved;
+        this.nodes = nodes;
+        this.backtracks = backtracks;
+    }
+
+    public boolean isSolved() { return solved; }
+    public long getNodes() { return nodes; }
+    public long getBacktracks() { return backtracks; }
+
+    @Override
+    public String toString() {
+        return "SolveResult{solved=" + solved + ", nodes=" + nodes + ", backtracks=" + backtracks + "}";
+    }
+}
@@ -0,0 +1,7 @@
+// SolveStrategy.java
+// Pluggable search used by Solver (DSA: Strategy pattern over the same int[9][9] grid).
+// Implementations fill the grid in place on success and leave it unchanged on failure.
+
+public interface SolveStrategy {
+    SolveResult solve(int[][] grid);
+}
@@ -1,48 +1,41 @@
 // Solver.java
-// Uses backtracking (DSA: Recursion with pruning) and HashSets for fast checks.
-
-import java.util.HashSet;
+// Delegates to a pluggable SolveStrategy (DSA: Strategy pattern); defaults to MRV + propagation.
+// Use new Solver(new NaiveStrategy()) for the original row-major backtracking,
+// or new Solver(new DancingLinksStrategy()) for the exact-cover backend.
+// With -Dsudoku.metrics=true every solve is timed and its nodes/backtracks counted (see Metrics).
 
 public class Solver {
-    private final Validator validator = new Validator();
+    private final SolveStrategy strategy;
 
-    public boolean solve(int[][] grid) {
-        HashSet<Integer>[] rowSets = new HashSet[9];
-        HashSet<Integer>[] colSets = new HashSet[9];
-        HashSet<Integer>[] boxSets = new HashSet[9];
-        validator.buildTrackers(grid, rowSets, colSets, boxSets);
-        return backtrack(grid, 0, 0, rowSets, colSets, boxSets);
+    public Solver() {
+        this(new PropagationStrategy());
     }
 
-    private boolean backtrack(int[][] grid, int row, int col,
-                              HashSet<Integer>[] rowSets, HashSet<Integer>[] colSets, HashSet<Integer>[] boxSets) {
-        if (row == 9) return true; // Base case: grid filled
-
-        int nextRow = (col == 8) ? row + 1 : row;
-        int nextCol = (col == 8) ? 0 : col + 1;
-
-        if (grid[row][col] != 0) {
-            return backtrack(grid, nextRow, nextCol, rowSets, colSets, boxSets);
-        }
+    public Solver(SolveStrategy strategy) {
+        this.strategy = strategy;
+    }
 
-        int boxIndex = (row / 3) * 3 + (col / 3);
-        for (int val = 1; val <= 9; val++) {
-            if (!rowSets[row].contains(val) && !colSets[col].contains(val) && !boxSets[boxIndex].contains(val)) {
-                // Place value
-                grid[row][col] = val;
-                rowSets[row].add(val);
-                colSets[col].add(val);
-                boxSets[boxIndex].add(val);
+    public boolean solve(int[][] grid) {
+        return solveWithStats(grid).isSolved();
+    }
 
-                if (backtrack(grid, nextRow, nextCol, rowSets, colSets, boxSets)) return true;
+    /**
+     * Adapter for packed grids: solves a scratch int[9][9] copy and packs the solution back.
+     */
+    public boolean solve(PackedGrid grid) {
+        int[][] scratch = grid.toArray();
+        if (!solve(scratch)) return false;
+        for (int i = 0; i < 81; i++) grid.set(i, scratch[i / 9][i % 9]);
+        return true;
+    }
 
-                // Backtrack (undo)
-                grid[row][col] = 0;
-                rowSets[row].remove(val);
-                colSets[col].remove(val);
-                boxSets[boxIndex].remove(val);
-            }
-        }
-        return false;
+    public SolveResult solveWithStats(int[][] grid) {
+        if (!Metrics.ENABLED) return strategy.solve(grid);
+        long t0 = System.nanoTime();
+        SolveResult result = strategy.solve(grid);
+        Metrics.solved(System.nanoTime() - t0, result);
+        return result;
     }
+
+    public SolveStrategy getStrategy() { return strategy; }
 }
\ No newline at end of file
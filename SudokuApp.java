@@ -1,28 +1,71 @@
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
 public class SudokuApp extends Application {
     // Game dependencies
     private final BoardModel boardModel = new BoardModel();
-    private final GameGenerator generator = new GameGenerator(new Solver());
+    private final GameGenerator generator = new GameGenerator(new Solver(), GameGenerator.Mode.UNIQUE);
+    private final PuzzleService puzzleService = new PuzzleService(generator);
     private final UndoManager undoManager = new UndoManager();
+    private final HintEngine hintEngine = new HintEngine(boardModel);
     private final CellPane[] cells = new CellPane[81];
     private int invalidCount = 0;
     private Stage primaryStage;
 
+    // Dirty-cell rendering: model changes mark cells, one runLater per pulse updates only those
+    private static final boolean LOG_RENDER = Boolean.getBoolean("sudoku.logRender");
+    private final boolean[] dirty = new boolean[81];
+    private boolean flushScheduled;
+    private int lastFrameUpdates; // CellPanes actually changed by the most recent flush
+    private long totalCellUpdates;
+
+    // Input and background work: the FX thread only applies results, it never waits on them
+    private final ExecutorService background = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "sudoku-background");
+        t.setDaemon(true);
+        return t;
+    });
+    private Task<Puzzle> generation; // In-flight new-game request, cancelled by the next one
+    private int generationRequest;   // Guards against a result that finished just before being cancelled
+    private int selected = -1;       // Cell receiving keyboard input, or -1
+    private Task<Hint> hintSearch;   // In-flight ladder search for a hint, cancelled by the next request
+    private Label status;
+
+    // Persistence: generated puzzles and the game in progress live in ~/.sudoku (null if it cannot be opened)
+    private PuzzleStore store;
+    private boolean storeReady;      // Opened (or given up on) in the background; START waits for it
+    private Button startButton;
+    private SavedGame pendingResume; // Loaded at launch, applied by the first startGame()
+    private boolean inProgress;      // A game is loaded and neither won nor lost, so it is worth saving
+
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
         primaryStage.setTitle("Sudoku Master");
+        boardModel.addChangeListener((index, oldValue, newValue) -> markDirty(index));
+        if (Metrics.ENABLED) Metrics.watch(undoManager);
+        openStore();
+        puzzleService.prefill(boardModel.getNumberOfEmptyCells()); // Warm the pool while the menu is shown
 
         // Start the application by showing the main menu
         showStartMenu();
@@ -30,10 +73,62 @@ public class SudokuApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        background.shutdownNow();
+        puzzleService.shutdown();
+        if (store == null) return;
+        try {
+            if (inProgress) store.saveGame(SavedGame.capture(boardModel, undoManager));
+            else store.deleteSavedGame();
+            store.close();
+        } catch (IOException ex) {
+            System.err.println("Could not save the game: " + ex);
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
 
+    /**
+     * Opens the puzzle library and reads the saved game off the FX thread: after a crash, open() recovers
+     * the record file and re-indexes every record the indexes missed. START stays disabled until then,
+     * so the saved game is resumed rather than replaced.
+     */
+    private void openStore() {
+        Path dir = Path.of(System.getProperty("user.home"), ".sudoku");
+        submit(() -> {
+            try {
+                return PuzzleStore.open(dir);
+            } catch (IOException | RuntimeException ex) {
+                return null; // Play on without persistence
+            }
+        }, opened -> {
+            store = opened;
+            if (opened == null) {
+                storeOpened();
+                return;
+            }
+            puzzleService.setStore(opened);
+            submit(() -> {
+                try {
+                    return opened.loadGame();
+                } catch (IOException ex) {
+                    return null;
+                }
+            }, game -> {
+                pendingResume = game;
+                storeOpened();
+            });
+        });
+    }
+
+    private void storeOpened() {
+        storeReady = true;
+        if (startButton != null) startButton.setDisable(false);
+    }
+
     // =======================================================
     // I. START MENU AND UI UTILITIES
     // =======================================================
@@ -55,6 +150,8 @@ public class SudokuApp extends Application {
         Button btnStart = new Button("START GAME");
         styleButton(btnStart);
         btnStart.setOnAction(e -> startGame());
+        btnStart.setDisable(!storeReady);
+        startButton = btnStart;
 
         Button btnExit = new Button("END GAME");
         styleButton(btnExit);
@@ -114,14 +211,27 @@ public class SudokuApp extends Application {
 
         root.setCenter(grid);
 
+        status = new Label();
+        status.setPadding(new Insets(0, 10, 10, 10));
+        root.setBottom(status);
+
         // Calculate size based on 64x64 cell size + padding/gaps
         Scene gameScene = new Scene(root, 9 * 66 + 40, 9 * 66 + 120);
+        // Filter, not handler: buttons would otherwise consume the arrow keys for focus traversal
+        gameScene.addEventFilter(KeyEvent.KEY_PRESSED, this::onKeyPressed);
         primaryStage.setScene(gameScene);
         primaryStage.sizeToScene();
 
-        generator.generateNew(boardModel);
-        undoManager.clear();
+        selected = -1;
         refreshUI();
+        if (pendingResume != null) {
+            pendingResume.restore(boardModel, undoManager);
+            pendingResume = null;
+            inProgress = true;
+            setStatus("Resumed your last game.");
+        } else {
+            requestNewGame();
+        }
     }
 
     private MenuBar buildMenu(Stage owner) {
@@ -131,31 +241,22 @@ public class SudokuApp extends Application {
         MenuItem showAnswer = new MenuItem("Show Answer");
         MenuItem undo = new MenuItem("Undo");
         MenuItem redo = new MenuItem("Redo");
+        MenuItem hint = new MenuItem("Hint");
         MenuItem exitToMenu = new MenuItem("Exit to Main Menu");
 
-        newGame.setOnAction(e -> {
-            generator.generateNew(boardModel);
-            undoManager.clear();
-            invalidCount = 0;
-            refreshUI();
-        });
+        // Board changes reach the cells through the change listener, so no full refresh is needed here
+        newGame.setOnAction(e -> requestNewGame());
         showAnswer.setOnAction(e -> {
             int[][] oldPuzzle = boardModel.getPuzzleCopy();
             boardModel.revealSolution();
             undoManager.recordBulk(oldPuzzle, boardModel.getPuzzle());
-            refreshUI();
-        });
-        undo.setOnAction(e -> {
-            undoManager.undo(boardModel.getPuzzle());
-            refreshUI();
-        });
-        redo.setOnAction(e -> {
-            undoManager.redo(boardModel.getPuzzle());
-            refreshUI();
         });
+        undo.setOnAction(e -> boardModel.undo(undoManager));
+        redo.setOnAction(e -> boardModel.redo(undoManager));
+        hint.setOnAction(e -> requestHint());
         exitToMenu.setOnAction(e -> showStartMenu()); // Action to return to main menu
 
-        game.getItems().addAll(newGame, showAnswer, undo, redo, new SeparatorMenuItem(), exitToMenu);
+        game.getItems().addAll(newGame, showAnswer, undo, redo, hint, new SeparatorMenuItem(), exitToMenu);
 
         Menu settings = new Menu("Settings");
         MenuItem changeEmpty = new MenuItem("Change Difficulty (Empty Cells)");
@@ -167,10 +268,7 @@ public class SudokuApp extends Application {
                 try {
                     int n = Integer.parseInt(s);
                     boardModel.setNumberOfEmptyCells(n);
-                    generator.generateNew(boardModel);
-                    undoManager.clear();
-                    invalidCount = 0;
-                    refreshUI();
+                    requestNewGame();
                 } catch (NumberFormatException ex) {
                     showAlert("Invalid number");
                 }
@@ -186,54 +284,182 @@ public class SudokuApp extends Application {
     // III. GAMEPLAY AND STATUS UPDATES
     // =======================================================
 
+    /**
+     * Fetches the next puzzle off the FX thread; a newer request cancels this one and wins.
+     */
+    private void requestNewGame() {
+        if (generation != null) generation.cancel(true);
+        if (hintSearch != null) hintSearch.cancel(true); // Its step would be for the old board
+        hintSearch = null;
+        int emptyCells = boardModel.getNumberOfEmptyCells();
+        int request = ++generationRequest;
+        setStatus("Generating puzzle...");
+        generation = submit(() -> puzzleService.take(emptyCells), puzzle -> {
+            if (request != generationRequest) return;
+            generation = null;
+            boardModel.load(puzzle);
+            undoManager.clear();
+            invalidCount = 0;
+            inProgress = true;
+            setStatus("Click a cell, then type 1-9. Arrow keys move the selection.");
+        });
+    }
+
+    /**
+     * Shows the next logical placement. Singles come straight from the engine's cached candidates;
+     * harder steps run the technique ladder on a copy of the board in the background.
+     */
+    private void requestHint() {
+        if (hintSearch != null) hintSearch.cancel(true);
+        hintSearch = null;
+        if (generation != null && generation.isRunning()) return;
+        Hint quick = hintEngine.quickHint();
+        if (quick != null) {
+            showHint(quick);
+            return;
+        }
+        int[][] grid = boardModel.getPuzzleCopy();
+        int request = generationRequest;
+        setStatus("Looking for a hint...");
+        hintSearch = submit(() -> new DifficultyRater().nextStep(grid), found -> {
+            if (request != generationRequest) return; // Finished just as a new game replaced the board
+            hintSearch = null;
+            showHint(hintEngine.confirm(found));
+        });
+    }
+
+    private void showHint(Hint hint) {
+        if (hint == null) {
+            setStatus("The board is already full.");
+            return;
+        }
+        select(hint.getCell());
+        String how = hint.isFromSolution() ? "from the solution" : "by " + hint.getTechnique().name().toLowerCase().replace('_', ' ');
+        setStatus("Hint: " + hint.getValue() + " at row " + (hint.getRow() + 1) + ", column " + (hint.getCol() + 1) + " (" + how + ")");
+    }
+
+    /**
+     * Runs work on the background pool and hands its result to onDone on the FX thread.
+     * Cancelled tasks never call onDone; failures are reported in the status line.
+     */
+    private <T> Task<T> submit(Callable<T> work, Consumer<T> onDone) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(e -> onDone.accept(task.getValue()));
+        task.setOnFailed(e -> setStatus("Background task failed: " + task.getException()));
+        background.execute(task);
+        return task;
+    }
+
     private void onCellClicked(int index) {
+        select(index);
+    }
+
+    private void select(int index) {
+        if (selected >= 0 && cells[selected] != null) cells[selected].setSelected(false);
+        selected = index;
+        if (selected >= 0 && cells[selected] != null) cells[selected].setSelected(true);
+    }
+
+    private void onKeyPressed(KeyEvent e) {
+        KeyCode code = e.getCode();
+        if (code.isArrowKey()) {
+            int r = selected < 0 ? 0 : selected / 9;
+            int c = selected < 0 ? 0 : selected % 9;
+            if (selected >= 0) {
+                if (code == KeyCode.UP || code == KeyCode.KP_UP) r = (r + 8) % 9;
+                else if (code == KeyCode.DOWN || code == KeyCode.KP_DOWN) r = (r + 1) % 9;
+                else if (code == KeyCode.LEFT || code == KeyCode.KP_LEFT) c = (c + 8) % 9;
+                else c = (c + 1) % 9;
+            }
+            select(r * 9 + c);
+            e.consume();
+            return;
+        }
+        String text = e.getText();
+        if (selected >= 0 && text.length() == 1 && text.charAt(0) >= '1' && text.charAt(0) <= '9') {
+            enterValue(selected, text.charAt(0) - '0');
+            e.consume();
+        }
+    }
+
+    private void enterValue(int index, int v) {
+        if (generation != null && generation.isRunning()) return; // Board is about to be replaced
+        if (boardModel.getValue(index) != 0) {
+            setStatus("That cell is already filled.");
+            return;
+        }
         int r = index / 9;
         int c = index % 9;
-        TextInputDialog dialog = new TextInputDialog();
-        dialog.setHeaderText("Enter number (1-9) or 0 to clear:");
-        dialog.showAndWait().ifPresent(input -> {
-            try {
-                int v = Integer.parseInt(input);
-                if (v < 0 || v > 9) {
-                    showAlert("Enter 0-9");
-                    return;
-                }
-                boolean ok = boardModel.placeNumber(r, c, v, undoManager);
-                if (!ok) {
-                    invalidCount++;
-                    showAlert("Invalid placement: violates Sudoku rules.");
-                    if (invalidCount >= 4) {
-                        Alert endAlert = new Alert(Alert.AlertType.INFORMATION, "Game Over! Too many mistakes.");
-                        endAlert.showAndWait();
-                        showStartMenu(); // Return to menu on loss
-                    }
-                } else {
-                    refreshUI();
-                    if (boardModel.isSolved()) {
-                        Alert win = new Alert(Alert.AlertType.INFORMATION, "You win!");
-                        win.showAndWait();
-                    }
-                }
-            } catch (NumberFormatException ex) {
-                showAlert("Invalid input");
+        boolean ok = boardModel.placeNumber(r, c, v, undoManager);
+        if (!ok) {
+            invalidCount++;
+            setStatus("Invalid placement: violates Sudoku rules. Mistakes: " + invalidCount + "/4");
+            if (invalidCount >= 4) {
+                inProgress = false;
+                Alert endAlert = new Alert(Alert.AlertType.INFORMATION, "Game Over! Too many mistakes.");
+                endAlert.show();
+                showStartMenu(); // Return to menu on loss
             }
-        });
+        } else {
+            setStatus("");
+            if (boardModel.isSolved()) {
+                inProgress = false;
+                Alert win = new Alert(Alert.AlertType.INFORMATION, "You win!");
+                win.show();
+            }
+        }
+    }
+
+    private void setStatus(String msg) {
+        if (status != null) status.setText(msg);
     }
 
     private void showAlert(String msg) {
         Alert a = new Alert(Alert.AlertType.ERROR, msg);
-        a.showAndWait();
+        a.show();
     }
 
+    /**
+     * Marks every cell dirty, e.g. after building a fresh grid of CellPanes.
+     */
     private void refreshUI() {
-        int[][] p = boardModel.getPuzzleCopy();
+        Arrays.fill(dirty, true);
+        scheduleFlush();
+    }
+
+    private void markDirty(int index) {
+        dirty[index] = true;
+        scheduleFlush();
+    }
+
+    // Coalesces all changes made before the next pulse into a single runLater
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
         // Use Platform.runLater to ensure UI updates are handled safely on the JavaFX thread
-        Platform.runLater(() -> {
-            for (int i = 0; i < 81; i++) {
-                int r = i / 9;
-                int c = i % 9;
-                cells[i].setValue(p[r][c]);
-            }
-        });
+        Platform.runLater(this::flushDirty);
     }
+
+    private void flushDirty() {
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0;
+        flushScheduled = false;
+        int updated = 0;
+        for (int i = 0; i < 81; i++) {
+            if (!dirty[i]) continue;
+            dirty[i] = false;
+            if (cells[i] != null && cells[i].setValue(boardModel.getValue(i))) updated++;
+        }
+        lastFrameUpdates = updated;
+        totalCellUpdates += updated;
+        if (Metrics.ENABLED) Metrics.rendered(System.nanoTime() - t0, updated);
+        if (LOG_RENDER) System.err.println("render: " + updated + " cells updated (total " + totalCellUpdates + ")");
+    }
+
+    int getLastFrameUpdates() { return lastFrameUpdates; }
+    long getTotalCellUpdates() { return totalCellUpdates; }
             }
@@ -0,0 +1,22 @@
+// Technique.java
+// Human solving techniques, easiest first, with the weight each contributes to a difficulty grade.
+
+public enum Technique {
+    NAKED_SINGLE(1.0),
+    HIDDEN_SINGLE(1.5),
+    LOCKED_CANDIDATES(2.5),
+    NAKED_PAIR(3.0),
+    HIDDEN_PAIR(3.4),
+    NAKED_TRIPLE(3.6),
+    HIDDEN_TRIPLE(4.0),
+    X_WING(4.2),
+    SWORDFISH(5.0);
+
+    private final double weight;
+
+    Technique(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeight() { return weight; }
+}
@@ -1,76 +1,184 @@
 // UndoManager.java
-// Manages undo/redo (DSA: Stack for LIFO operations).
-// Updated to handle bulk operations (e.g., reveal solution) by storing full grid snapshots (int[9][9]).
-// Uses Object in Stack for polymorphism: int[] for single moves, int[][] for bulk.
-// (DSA note: instanceof for type checking, array copies for state restoration.)
-
-import java.util.Stack;
+// Manages undo/redo (DSA: Stack for LIFO operations, stored in a fixed ring buffer).
+// Each cell change is one packed int: cell (7 bits) | old value (4) | new value (4) | group size (7).
+// Bulk operations (e.g., reveal solution) store only the cells that changed, as a group of entries
+// undone/redone together; every entry of a group carries its size so a group can be walked from either end.
+// History is bounded: when the buffer is full, the oldest whole group is dropped. No allocation per move.
 
 public class UndoManager {
-    private final Stack<Object> undoStack = new Stack<>();
-    private final Stack<Object> redoStack = new Stack<>();
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    private static final int NOOP_CELL = 127; // Bulk record with no changed cells
+
+    private final int[] ring;
+    private int head;       // Oldest undoable entry
+    private int undoCount;  // Entries available to undo, ending just before the cursor
+    private int redoCount;  // Entries available to redo, starting at the cursor
+    private int undoGroups;
+    private int redoGroups;
+
+    public UndoManager() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries history capacity in cell changes; at least 81 so one full-board bulk record fits
+     */
+    public UndoManager(int maxEntries) {
+        ring = new int[Math.max(81, maxEntries)];
+    }
 
     public void recordMove(int row, int col, int oldValue, int newValue) {
-        undoStack.push(new int[]{row, col, oldValue, newValue});
-        redoStack.clear(); // Clear redo on new action
+        clearRedo(); // Clear redo on new action
+        makeRoom(1);
+        push(encode(row * 9 + col, oldValue, newValue, 1));
+        undoGroups++;
     }
 
     public void recordBulk(int[][] oldGrid, int[][] newGrid) {
-        // Push oldGrid for undo (bulk)
-        undoStack.push(copyGrid(oldGrid));
-        redoStack.clear();
+        clearRedo();
+        int changed = 0;
+        for (int i = 0; i < 81; i++) {
+            if (oldGrid[i / 9][i % 9] != newGrid[i / 9][i % 9]) changed++;
+        }
+        if (changed == 0) { // Still one undo step, as before, even though it changes nothing
+            makeRoom(1);
+            push(encode(NOOP_CELL, 0, 0, 1));
+        } else {
+            makeRoom(changed);
+            for (int i = 0; i < 81; i++) {
+                int oldValue = oldGrid[i / 9][i % 9];
+                int newValue = newGrid[i / 9][i % 9];
+                if (oldValue != newValue) push(encode(i, oldValue, newValue, changed));
+            }
+        }
+        undoGroups++;
     }
 
     public void undo(int[][] puzzle) {
-        if (undoStack.isEmpty()) return;
-        Object move = undoStack.pop();
-        if (move instanceof int[]) { // Single cell
-            int[] single = (int[]) move;
-            int row = single[0], col = single[1], oldValue = single[2], newValue = single[3];
-            int currentValue = puzzle[row][col];
-            puzzle[row][col] = oldValue;
-            redoStack.push(new int[]{row, col, currentValue, oldValue}); // Note: for redo, old is newValue, but since reverting, adjust
-        } else if (move instanceof int[][]) { // Bulk
-            int[][] oldGrid = (int[][]) move;
-            int[][] currentGrid = copyGrid(puzzle);
-            copyGridTo(oldGrid, puzzle);
-            redoStack.push(currentGrid);
+        undo(puzzle, null);
+    }
+
+    /**
+     * Undoes the latest action, reporting every cell it writes to the listener (may be null).
+     */
+    public void undo(int[][] puzzle, CellChangeListener listener) {
+        if (undoCount == 0) return;
+        int size = groupSize(ring[index(undoCount - 1)]);
+        for (int k = undoCount - size; k < undoCount; k++) {
+            int entry = ring[index(k)];
+            int cell = cellOf(entry);
+            if (cell != NOOP_CELL) write(puzzle, cell, oldValueOf(entry), listener);
         }
+        undoCount -= size;
+        redoCount += size;
+        undoGroups--;
+        redoGroups++;
     }
 
     public void redo(int[][] puzzle) {
-        if (redoStack.isEmpty()) return;
-        Object move = redoStack.pop();
-        if (move instanceof int[]) { // Single cell
-            int[] single = (int[]) move;
-            int row = single[0], col = single[1], oldValue = single[2], newValue = single[3];
-            int currentValue = puzzle[row][col];
-            puzzle[row][col] = oldValue; // For redo, "oldValue" is actually the value to set (the "new" from original)
-            undoStack.push(new int[]{row, col, currentValue, oldValue});
-        } else if (move instanceof int[][]) { // Bulk
-            int[][] redoGrid = (int[][]) move;
-            int[][] currentGrid = copyGrid(puzzle);
-            copyGridTo(redoGrid, puzzle);
-            undoStack.push(currentGrid);
+        redo(puzzle, null);
+    }
+
+    /**
+     * Redoes the latest undone action, reporting every cell it writes to the listener (may be null).
+     */
+    public void redo(int[][] puzzle, CellChangeListener listener) {
+        if (redoCount == 0) return;
+        int size = groupSize(ring[index(undoCount)]);
+        for (int k = undoCount; k < undoCount + size; k++) {
+            int entry = ring[index(k)];
+            int cell = cellOf(entry);
+            if (cell != NOOP_CELL) write(puzzle, cell, newValueOf(entry), listener);
         }
+        undoCount += size;
+        redoCount -= size;
+        undoGroups++;
+        redoGroups--;
     }
 
     public void clear() {
-        undoStack.clear();
-        redoStack.clear();
+        head = 0;
+        undoCount = 0;
+        redoCount = 0;
+        undoGroups = 0;
+        redoGroups = 0;
+    }
+
+    /**
+     * Undo entries oldest first, then redo entries, for saving a game; see importHistory.
+     */
+    public int[] exportHistory() {
+        int[] entries = new int[undoCount + redoCount];
+        for (int k = 0; k < entries.length; k++) entries[k] = ring[index(k)];
+        return entries;
     }
 
-    private int[][] copyGrid(int[][] source) {
-        int[][] copy = new int[9][9];
-        for (int r = 0; r < 9; r++) {
-            System.arraycopy(source[r], 0, copy[r], 0, 9);
+    public int getUndoEntries() { return undoCount; }
+
+    /**
+     * Replaces the history with exported entries, the first undoEntries of them undoable.
+     * History that does not fit or does not split into whole groups is dropped (the manager is cleared).
+     */
+    public void importHistory(int[] entries, int undoEntries) {
+        clear();
+        if (entries.length > ring.length || undoEntries < 0 || undoEntries > entries.length) return;
+        int groups = 0, undoable = 0;
+        for (int k = 0; k < entries.length; groups++) {
+            int size = groupSize(entries[k]);
+            if (size == 0 || k + size > entries.length || (k < undoEntries && k + size > undoEntries)) return;
+            k += size;
+            if (k <= undoEntries) undoable++;
         }
-        return copy;
+        System.arraycopy(entries, 0, ring, 0, entries.length);
+        undoCount = undoEntries;
+        redoCount = entries.length - undoEntries;
+        undoGroups = undoable;
+        redoGroups = groups - undoable;
+    }
+
+    public boolean canUndo() { return undoCount > 0; }
+    public boolean canRedo() { return redoCount > 0; }
+    // Depths in user actions (a bulk record counts once)
+    public int getUndoDepth() { return undoGroups; }
+    public int getRedoDepth() { return redoGroups; }
+    public int getCapacity() { return ring.length; }
+
+    private static void write(int[][] puzzle, int cell, int value, CellChangeListener listener) {
+        int current = puzzle[cell / 9][cell % 9];
+        puzzle[cell / 9][cell % 9] = value;
+        if (listener != null && current != value) listener.cellChanged(cell, current, value);
     }
 
-    private void copyGridTo(int[][] source, int[][] target) {
-        for (int r = 0; r < 9; r++) {
-            System.arraycopy(source[r], 0, target[r], 0, 9);
+    private void clearRedo() {
+        redoCount = 0;
+        redoGroups = 0;
+    }
+
+    // Drops the oldest groups until 'entries' more fit
+    private void makeRoom(int entries) {
+        while (ring.length - undoCount < entries) {
+            int size = groupSize(ring[head]);
+            head = (head + size) % ring.length;
+            undoCount -= size;
+            undoGroups--;
         }
     }
+
+    private void push(int entry) {
+        ring[index(undoCount)] = entry;
+        undoCount++;
+    }
+
+    private int index(int offset) {
+        return (head + offset) % ring.length;
+    }
+
+    private static int encode(int cell, int oldValue, int newValue, int groupSize) {
+        return cell | oldValue << 7 | newValue << 11 | groupSize << 15;
+    }
+
+    private static int cellOf(int entry) { return entry & 0x7F; }
+    private static int oldValueOf(int entry) { return (entry >>> 7) & 0xF; }
+    private static int newValueOf(int entry) { return (entry >>> 11) & 0xF; }
+    private static int groupSize(int entry) { return entry >>> 15; }
 }
@@ -1,30 +1,78 @@
 // Validator.java
-// Simplified using built-in HashSet for tracking (DSA: Sets for unique elements and O(1) checks).
+// Placement checks go through ConstraintEngine bitmasks (DSA: one 9-bit int per unit, no boxing).
+// The original HashSet buildTrackers overload is kept only as the baseline for ValidatorBenchmark.
 
 import java.util.HashSet;
 
 public class Validator {
 
     public boolean isValidPlacement(int[][] grid, int row, int col, int num) {
-        // Check row (DSA: Linear scan O(9))
-        for (int c = 0; c < 9; c++) {
-            if (grid[row][c] == num) return false;
+        if (num < 1 || num > 9) return false; // bit(num) would match nothing and pass any digit outside 1-9
+        if (Metrics.ENABLED) {
+            long t0 = System.nanoTime();
+            boolean valid = (ConstraintEngine.usedMask(grid, row, col) & ConstraintEngine.bit(num)) == 0;
+            Metrics.VALIDATE.record(System.nanoTime() - t0);
+            return valid;
         }
-        // Check column
-        for (int r = 0; r < 9; r++) {
-            if (grid[r][col] == num) return false;
-        }
-        // Check 3x3 box
+        // Row, column and 3x3 box folded into one mask (DSA: 27 reads, no allocation)
+        return (ConstraintEngine.usedMask(grid, row, col) & ConstraintEngine.bit(num)) == 0;
+    }
+
+    public boolean isValidPlacement(PackedGrid grid, int row, int col, int num) {
+        // Same range check and 27 reads as above, straight from the packed cells
+        if (num < 1 || num > 9) return false;
         int br = (row / 3) * 3;
         int bc = (col / 3) * 3;
-        for (int r = br; r < br + 3; r++) {
-            for (int c = bc; c < bc + 3; c++) {
-                if (grid[r][c] == num) return false;
-            }
+        for (int i = 0; i < 9; i++) {
+            if (grid.get(row, i) == num || grid.get(i, col) == num) return false;
+            if (grid.get(br + i / 3, bc + i % 3) == num) return false;
+        }
+        return true;
+    }
+
+    public boolean buildTrackers(int[][] grid, int[] rowMasks, int[] colMasks, int[] boxMasks) {
+        if (!Metrics.ENABLED) return ConstraintEngine.fillMasks(grid, rowMasks, colMasks, boxMasks);
+        long t0 = System.nanoTime();
+        boolean consistent = ConstraintEngine.fillMasks(grid, rowMasks, colMasks, boxMasks);
+        Metrics.VALIDATE.record(System.nanoTime() - t0);
+        return consistent;
+    }
+
+    /**
+     * N x N variant on a flat grid (cell = row * N + col): row, column and box scanned straight from the cells.
+     */
+    public boolean isValidPlacement(BoardGeometry geometry, int[] grid, int cell, int num) {
+        for (int peer : geometry.peers(cell)) {
+            if (grid[peer] == num) return false;
         }
         return true;
     }
 
+    /**
+     * Fills one long mask per row, column and box (DSA: bit v - 1 for digit v, no HashSet per unit).
+     * Returns false if a digit appears twice in any unit.
+     */
+    public boolean buildTrackers(BoardGeometry geometry, int[] grid, long[] rowMasks, long[] colMasks, long[] boxMasks) {
+        int side = geometry.getSide();
+        boolean consistent = true;
+        for (int i = 0; i < side; i++) {
+            rowMasks[i] = 0;
+            colMasks[i] = 0;
+            boxMasks[i] = 0;
+        }
+        for (int cell = 0; cell < geometry.getCells(); cell++) {
+            int v = grid[cell];
+            if (v == 0) continue;
+            long b = BoardGeometry.bit(v);
+            int r = geometry.row(cell), c = geometry.col(cell), bx = geometry.boxOf(cell);
+            if (((rowMasks[r] | colMasks[c] | boxMasks[bx]) & b) != 0) consistent = false;
+            rowMasks[r] |= b;
+            colMasks[c] |= b;
+            boxMasks[bx] |= b;
+        }
+        return consistent;
+    }
+
     public void buildTrackers(int[][] grid, HashSet<Integer>[] rowSets, HashSet<Integer>[] colSets, HashSet<Integer>[] boxSets) {
         for (int i = 0; i < 9; i++) {
             rowSets[i] = new HashSet<>();
@@ -0,0 +1,108 @@
+package sudoku.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashSet;
+
+/**
+ * Bridge to the app classes, which live in the default package. Code in a named package cannot
+ * reference those types directly, and JMH rejects benchmarks in the default package, so the hot
+ * calls go through static final MethodHandles (inlined by the JIT like direct calls) and setup
+ * objects are built reflectively.
+ */
+final class App {
+    // (Object solver, int[][] grid) -> boolean
+    static final MethodHandle SOLVE;
+    // (Object validator, int[][] grid, int row, int col, int num) -> boolean
+    static final MethodHandle IS_VALID_PLACEMENT;
+    // (Object validator, int[][] grid, int[] rows, int[] cols, int[] boxes) -> boolean
+    static final MethodHandle BUILD_TRACKERS_MASKS;
+    // (Object validator, int[][] grid, HashSet[] rows, HashSet[] cols, HashSet[] boxes) -> void
+    static final MethodHandle BUILD_TRACKERS_SETS;
+    // (Object generator, Object boardModel) -> void
+    static final MethodHandle GENERATE_NEW;
+    // (Object undoManager, int row, int col, int oldValue, int newValue) -> void
+    static final MethodHandle RECORD_MOVE;
+    // (Object undoManager, int[][] puzzle) -> void
+    static final MethodHandle UNDO;
+    static final MethodHandle REDO;
+    // (Object undoManager) -> void
+    static final MethodHandle CLEAR_UNDO;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            SOLVE = virtual(lookup, "Solver", "solve", boolean.class, int[][].class);
+            IS_VALID_PLACEMENT = virtual(lookup, "Validator", "isValidPlacement", boolean.class,
+                    int[][].class, int.class, int.class, int.class);
+            BUILD_TRACKERS_MASKS = virtual(lookup, "Validator", "buildTrackers", boolean.class,
+                    int[][].class, int[].class, int[].class, int[].class);
+            BUILD_TRACKERS_SETS = virtual(lookup, "Validator", "buildTrackers", void.class,
+                    int[][].class, HashSet[].class, HashSet[].class, HashSet[].class);
+            GENERATE_NEW = virtual(lookup, "GameGenerator", "generateNew", void.class, type("BoardModel"));
+            RECORD_MOVE = virtual(lookup, "UndoManager", "recordMove", void.class,
+                    int.class, int.class, int.class, int.class);
+            UNDO = virtual(lookup, "UndoManager", "undo", void.class, int[][].class);
+            REDO = virtual(lookup, "UndoManager", "redo", void.class, int[][].class);
+            CLEAR_UNDO = virtual(lookup, "UndoManager", "clear", void.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private App() {
+    }
+
+    /**
+     * Solver backed by "propagation" (default), "naive" or "dlx".
+     */
+    static Object solver(String strategy) throws ReflectiveOperationException {
+        String cls;
+        switch (strategy) {
+            case "propagation": cls = "PropagationStrategy"; break;
+            case "naive": cls = "NaiveStrategy"; break;
+            case "dlx": cls = "DancingLinksStrategy"; break;
+            default: throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+        Object impl = type(cls).getConstructor().newInstance();
+        return type("Solver").getConstructor(type("SolveStrategy")).newInstance(impl);
+    }
+
+    static Object validator() throws ReflectiveOperationException {
+        return type("Validator").getConstructor().newInstance();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object generator(Object solver, String mode) throws ReflectiveOperationException {
+        Class modeType = type("GameGenerator$Mode");
+        return type("GameGenerator").getConstructor(type("Solver"), modeType)
+                .newInstance(solver, Enum.valueOf(modeType, mode));
+    }
+
+    static Object boardModel(int numberOfEmptyCells) throws ReflectiveOperationException {
+        Object model = type("BoardModel").getConstructor().newInstance();
+        type("BoardModel").getMethod("setNumberOfEmptyCells", int.class).invoke(model, numberOfEmptyCells);
+        return model;
+    }
+
+    static Object undoManager() throws ReflectiveOperationException {
+        return type("UndoManager").getConstructor().newInstance();
+    }
+
+    private static Class<?> type(String name) throws ClassNotFoundException {
+        return Class.forName(name, true, App.class.getClassLoader());
+    }
+
+    // Virtual method handle with the receiver and app-typed parameters erased to Object,
+    // so call sites can use invokeExact without naming default-package types
+    private static MethodHandle virtual(MethodHandles.Lookup lookup, String owner, String name,
+                                        Class<?> returnType, Class<?>... params) throws ReflectiveOperationException {
+        MethodHandle mh = lookup.findVirtual(type(owner), name, MethodType.methodType(returnType, params));
+        MethodType erased = mh.type().changeParameterType(0, Object.class);
+        for (int i = 1; i < erased.parameterCount(); i++) {
+            if (erased.parameterType(i).getPackageName().isEmpty()) erased = erased.changeParameterType(i, Object.class);
+        }
+        return mh.asType(erased);
+    }
+}
@@ -0,0 +1,46 @@
+package sudoku.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checked-in puzzle sets under /corpus: one 81-character puzzle per line, '0' or '.' for empty cells,
+ * lines starting with '#' are comments.
+ */
+final class Corpus {
+    private Corpus() {
+    }
+
+    static int[][][] load(String name) {
+        String resource = "/corpus/" + name + ".txt";
+        try (InputStream in = Corpus.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IllegalArgumentException("No corpus " + resource);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            List<int[][]> grids = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (line.length() != 81) throw new IllegalArgumentException("Bad line in " + resource + ": " + line);
+                int[][] grid = new int[9][9];
+                for (int i = 0; i < 81; i++) {
+                    char ch = line.charAt(i);
+                    grid[i / 9][i % 9] = ch >= '1' && ch <= '9' ? ch - '0' : 0;
+                }
+                grids.add(grid);
+            }
+            return grids.toArray(new int[0][][]);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static void copy(int[][] source, int[][] target) {
+        for (int r = 0; r < 9; r++) System.arraycopy(source[r], 0, target[r], 0, 9);
+    }
+}
@@ -0,0 +1,46 @@
+package sudoku.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GameGenerator.generateNew into a reused BoardModel at several empty-cell counts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({"20", "40", "55", "64"})
+    public int emptyCells;
+
+    @Param({"RANDOM", "UNIQUE", "SYMMETRIC"})
+    public String mode;
+
+    private Object generator;
+    private Object model;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        generator = App.generator(App.solver("propagation"), mode);
+        model = App.boardModel(emptyCells);
+    }
+
+    @Benchmark
+    public Object generateNew() throws Throwable {
+        App.GENERATE_NEW.invokeExact(generator, model);
+        return model;
+    }
+}
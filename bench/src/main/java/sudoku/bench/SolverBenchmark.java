@@ -0,0 +1,50 @@
+package sudoku.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solver.solve over each corpus, cycling through its puzzles. Each op includes copying the
+ * 81-cell puzzle into a reused work grid, since solve fills it in place.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"easy", "hard", "17clue"})
+    public String corpus;
+
+    @Param({"propagation", "dlx", "naive"})
+    public String strategy;
+
+    private int[][][] puzzles;
+    private final int[][] work = new int[9][9];
+    private Object solver;
+    private int next;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        puzzles = Corpus.load(corpus);
+        solver = App.solver(strategy);
+    }
+
+    @Benchmark
+    public boolean solve() throws Throwable {
+        Corpus.copy(puzzles[next], work);
+        next = next + 1 == puzzles.length ? 0 : next + 1;
+        return (boolean) App.SOLVE.invokeExact(solver, work);
+    }
+}
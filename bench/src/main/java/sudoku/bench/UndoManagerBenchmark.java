@@ -0,0 +1,51 @@
+package sudoku.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UndoManager history at depth: record 'depth' moves, undo them all, then redo them all.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UndoManagerBenchmark {
+    @Param({"16", "256", "4096"})
+    public int depth;
+
+    private Object undoManager;
+    private final int[][] puzzle = new int[9][9];
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        undoManager = App.undoManager();
+    }
+
+    @Benchmark
+    public int[][] pushUndoRedo() throws Throwable {
+        App.CLEAR_UNDO.invokeExact(undoManager);
+        for (int i = 0; i < depth; i++) {
+            int cell = i % 81;
+            int oldValue = puzzle[cell / 9][cell % 9];
+            int newValue = oldValue % 9 + 1;
+            App.RECORD_MOVE.invokeExact(undoManager, cell / 9, cell % 9, oldValue, newValue);
+            puzzle[cell / 9][cell % 9] = newValue;
+        }
+        for (int i = 0; i < depth; i++) App.UNDO.invokeExact(undoManager, puzzle);
+        for (int i = 0; i < depth; i++) App.REDO.invokeExact(undoManager, puzzle);
+        return puzzle;
+    }
+}
@@ -0,0 +1,73 @@
+package sudoku.bench;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Validator.isValidPlacement walking every cell/digit pair of the easy corpus, and both
+ * buildTrackers overloads (bitmasks vs. the original HashSet trackers).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+    private int[][][] puzzles;
+    private Object validator;
+    private final int[] rowMasks = new int[9];
+    private final int[] colMasks = new int[9];
+    private final int[] boxMasks = new int[9];
+    private int puzzle;
+    private int cell;
+    private int digit = 1;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        puzzles = Corpus.load("easy");
+        validator = App.validator();
+    }
+
+    @Benchmark
+    public boolean isValidPlacement() throws Throwable {
+        if (++digit > 9) {
+            digit = 1;
+            if (++cell == 81) {
+                cell = 0;
+                puzzle = puzzle + 1 == puzzles.length ? 0 : puzzle + 1;
+            }
+        }
+        return (boolean) App.IS_VALID_PLACEMENT.invokeExact(validator, puzzles[puzzle], cell / 9, cell % 9, digit);
+    }
+
+    @Benchmark
+    public boolean buildTrackersMasks() throws Throwable {
+        puzzle = puzzle + 1 == puzzles.length ? 0 : puzzle + 1;
+        return (boolean) App.BUILD_TRACKERS_MASKS.invokeExact(validator, puzzles[puzzle], rowMasks, colMasks, boxMasks);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void buildTrackersHashSet(Blackhole bh) throws Throwable {
+        puzzle = puzzle + 1 == puzzles.length ? 0 : puzzle + 1;
+        HashSet<Integer>[] rows = new HashSet[9];
+        HashSet<Integer>[] cols = new HashSet[9];
+        HashSet<Integer>[] boxes = new HashSet[9];
+        App.BUILD_TRACKERS_SETS.invokeExact(validator, puzzles[puzzle], rows, cols, boxes);
+        bh.consume(rows);
+        bh.consume(cols);
+        bh.consume(boxes);
+    }
+}